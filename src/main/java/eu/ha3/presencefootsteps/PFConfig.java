@@ -1,8 +1,12 @@
 package eu.ha3.presencefootsteps;
 
 import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
 import eu.ha3.presencefootsteps.config.EntitySelector;
 import eu.ha3.presencefootsteps.config.JsonFile;
 import eu.ha3.presencefootsteps.sound.generator.Locomotion;
@@ -28,6 +32,15 @@ public class PFConfig extends JsonFile {
     private float foliageSoundsVolume = 1.0F;
 
     private int maxSteppingEntities = 50;
+    private boolean parallelSolving = false;
+    private int footstepBudget = 0;
+    private boolean crowds = false;
+    private int maxVoices = 0;
+    private int maxPendingSounds = 256;
+
+    private float reducedDetailDistance = 16;
+    private float minimalDetailDistance = 16;
+    private float minAudibleVolume = 0;
 
     private boolean multiplayer = true;
     private boolean global = true;
@@ -44,6 +57,8 @@ public class PFConfig extends JsonFile {
                 Identifier.ofVanilla("happy_ghast"),
                 Identifier.ofVanilla("phantom")
             );
+    @Nullable
+    private transient BitSet ignoredEntityTypeIds;
 
     public PFConfig(Path file) {
         super(file);
@@ -137,6 +152,92 @@ public class PFConfig extends JsonFile {
         maxSteppingEntities = value;
     }
 
+    /**
+     * The time, in microseconds, footstep generation may take each tick before the remaining entities are put off until the next.
+     * Zero for no limit.
+     */
+    public int getFootstepBudget() {
+        return Math.max(0, footstepBudget);
+    }
+
+    public void setFootstepBudget(int value) {
+        footstepBudget = value;
+    }
+
+    /**
+     * The most footstep sounds that may be playing at once. Zero for no limit.
+     */
+    public int getMaxVoices() {
+        return Math.max(0, maxVoices);
+    }
+
+    public void setMaxVoices(int value) {
+        maxVoices = value;
+    }
+
+    /**
+     * The most delayed sounds that may be waiting to play at once. Zero for no limit.
+     */
+    public int getMaxPendingSounds() {
+        return Math.max(0, maxPendingSounds);
+    }
+
+    public void setMaxPendingSounds(int value) {
+        maxPendingSounds = value;
+    }
+
+    public boolean getCrowds() {
+        return crowds;
+    }
+
+    public void setCrowds(boolean value) {
+        crowds = value;
+    }
+
+    public boolean getParallelSolving() {
+        return parallelSolving;
+    }
+
+    public void setParallelSolving(boolean value) {
+        parallelSolving = value;
+    }
+
+    /**
+     * The distance from the camera beyond which entities stop making wandering, foliage, and standing sounds.
+     * Footsteps are only generated within 16 blocks, so 16 or more keeps every entity at full detail.
+     */
+    public float getReducedDetailDistance() {
+        return Math.max(0, reducedDetailDistance);
+    }
+
+    public void setReducedDetailDistance(float value) {
+        reducedDetailDistance = value;
+    }
+
+    /**
+     * The distance from the camera beyond which entities only make plain steps, every other tick.
+     * Footsteps are only generated within 16 blocks, so 16 or more leaves this level unused.
+     */
+    public float getMinimalDetailDistance() {
+        return Math.max(getReducedDetailDistance(), minimalDetailDistance);
+    }
+
+    public void setMinimalDetailDistance(float value) {
+        minimalDetailDistance = value;
+    }
+
+    /**
+     * The quietest an entity's footsteps may be expected to sound before they are skipped entirely.
+     * Zero to never skip them.
+     */
+    public float getMinAudibleVolume() {
+        return MathHelper.clamp(minAudibleVolume, 0, 1);
+    }
+
+    public void setMinAudibleVolume(float value) {
+        minAudibleVolume = value;
+    }
+
     public boolean getMultiplayer() {
         return multiplayer;
     }
@@ -193,8 +294,21 @@ public class PFConfig extends JsonFile {
         targetEntities = value == null ? EntitySelector.ALL : value;
     }
 
+    @Override
+    protected void onLoaded() {
+        ignoredEntityTypeIds = null;
+    }
+
     public boolean isIgnoredForFootsteps(EntityType<?> type) {
-        return this.ignoredEntityTypes.contains(Registries.ENTITY_TYPE.getId(type));
+        if (ignoredEntityTypeIds == null) {
+            BitSet ids = new BitSet(Registries.ENTITY_TYPE.size());
+            for (Identifier id : ignoredEntityTypes) {
+                Registries.ENTITY_TYPE.getOptionalValue(id).ifPresent(t -> ids.set(Registries.ENTITY_TYPE.getRawId(t)));
+            }
+            ignoredEntityTypeIds = ids;
+        }
+        int id = Registries.ENTITY_TYPE.getRawId(type);
+        return id >= 0 && ignoredEntityTypeIds.get(id);
     }
 
     public void populateCrashReport(CrashReportSection section) {
@@ -204,5 +318,6 @@ public class PFConfig extends JsonFile {
         section.add("Target Selector", getEntitySelector());
         section.add("Enabled Global", global);
         section.add("Enabled Multiplayer", multiplayer);
+        section.add("Parallel Solving", parallelSolving);
     }
 }
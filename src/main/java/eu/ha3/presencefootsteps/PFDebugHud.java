@@ -15,6 +15,7 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.hud.debug.DebugHudEntries;
 import net.minecraft.client.gui.hud.debug.DebugHudEntry;
 import net.minecraft.client.gui.hud.debug.DebugHudLines;
+import net.minecraft.entity.LivingEntity;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.tag.FluidTags;
 import net.minecraft.util.Formatting;
@@ -70,7 +71,31 @@ public class PFDebugHud implements DebugHudEntry {
                         engine.getIsolator().primitives().getSubstrates().size(),
                         engine.getIsolator().golems().getSubstrates().size()
                 ),
-                String.format("Has Resource Pack: %s%s", engine.hasData() ? Formatting.GREEN : Formatting.RED, engine.hasData())
+                String.format("Has Resource Pack: %s%s", engine.hasData() ? Formatting.GREEN : Formatting.RED, engine.hasData()),
+                String.format("Player Volume: %s", client.player == null ? "-" : engine.getVolumeProfile(client.player)),
+                String.format("Voices: %s/%s playing, %s played, %s stolen, %s dropped",
+                        engine.getVoiceLimiter().getActiveCount(),
+                        config.getMaxVoices(),
+                        engine.getVoiceLimiter().getPlayedCount(),
+                        engine.getVoiceLimiter().getStolenCount(),
+                        engine.getVoiceLimiter().getRejectedCount()
+                ),
+                String.format("Delayed: %s/%s pending, %s shed, %s cancelled, %s late",
+                        engine.getDelayedSoundPlayer().getPendingCount(),
+                        config.getMaxPendingSounds(),
+                        engine.getDelayedSoundPlayer().getShedCount(),
+                        engine.getDelayedSoundPlayer().getCancelledCount(),
+                        engine.getDelayedSoundPlayer().getLateCount()
+                ),
+                String.format("Scheduler: %s deferred, %s overruns",
+                        engine.getScheduler().getDeferredCount(),
+                        engine.getScheduler().getOverrunCount()
+                ),
+                String.format("Golems: %s nearby, %s of %s lookups checked entities",
+                        engine.getGolemIndex().getTrackedCount(),
+                        engine.getGolemIndex().getCheckCount(),
+                        engine.getGolemIndex().getProbeCount()
+                )
         ));
 
         if (client.crosshairTarget instanceof BlockHitResult blockHit && blockHit.getType() == HitResult.Type.BLOCK) {
@@ -105,6 +130,9 @@ public class PFDebugHud implements DebugHudEntry {
 
         if (client.crosshairTarget instanceof EntityHitResult ehr && ehr.getEntity() != null) {
             finalList.addLineToSection(DebugHudEntries.LOOKING_AT_ENTITY, String.format("Targeted Entity Step Mode: %s", engine.getIsolator().locomotions().lookup(ehr.getEntity())));
+            if (ehr.getEntity() instanceof LivingEntity living) {
+                finalList.addLineToSection(DebugHudEntries.LOOKING_AT_ENTITY, String.format("Targeted Entity Volume: %s", engine.getVolumeProfile(living)));
+            }
             finalList.addLinesToSection(DebugHudEntries.LOOKING_AT_ENTITY, renderSoundList("Step Sounds[G]", engine.getIsolator().golems().getAssociations(ehr.getEntity().getType())));
         }
     }
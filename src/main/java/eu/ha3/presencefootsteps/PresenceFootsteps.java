@@ -14,8 +14,11 @@ import org.lwjgl.glfw.GLFW;
 import eu.ha3.presencefootsteps.sound.SoundEngine;
 import eu.ha3.presencefootsteps.util.Edge;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientEntityEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.fabricmc.fabric.api.resource.v1.ResourceLoader;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
@@ -95,6 +98,15 @@ public class PresenceFootsteps implements ClientModInitializer {
         KeyBindingHelper.registerKeyBinding(toggleKeyBinding);
         KeyBindingHelper.registerKeyBinding(debugToggleKeyBinding);
         ClientTickEvents.END_CLIENT_TICK.register(this::onTick);
+        ClientChunkEvents.CHUNK_LOAD.register((world, chunk) -> engine.onChunkChanged(chunk.getPos()));
+        ClientChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> engine.onChunkChanged(chunk.getPos()));
+        ClientEntityEvents.ENTITY_LOAD.register(engine::onEntityLoaded);
+        ClientEntityEvents.ENTITY_UNLOAD.register(engine::onEntityUnloaded);
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            if (client) {
+                engine.onTagsLoaded();
+            }
+        });
         ResourceLoader.get(ResourceType.CLIENT_RESOURCES).registerReloader(SoundEngine.ID, engine);
         DebugHudEntries.register(PFDebugHud.ID, debugHud);
     }
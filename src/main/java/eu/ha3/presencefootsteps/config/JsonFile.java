@@ -47,8 +47,14 @@ public abstract class JsonFile {
 
     public final void load(Reader reader) {
         gson.fromJson(reader, getClass());
+        onLoaded();
     }
 
+    /**
+     * Called after values have been read into this file, so anything worked out from them can be discarded.
+     */
+    protected void onLoaded() {}
+
     public final void save() {
         try {
             Files.createDirectories(file.getParent());
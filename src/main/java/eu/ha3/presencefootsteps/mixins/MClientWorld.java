@@ -0,0 +1,19 @@
+package eu.ha3.presencefootsteps.mixins;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import eu.ha3.presencefootsteps.PresenceFootsteps;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+
+@Mixin(ClientWorld.class)
+abstract class MClientWorld {
+    @Inject(method = "scheduleBlockRerenderIfNeeded", at = @At("HEAD"))
+    private void onScheduleBlockRerenderIfNeeded(BlockPos pos, BlockState old, BlockState updated, CallbackInfo info) {
+        PresenceFootsteps.getInstance().getEngine().onBlockChanged(pos);
+    }
+}
@@ -0,0 +1,20 @@
+package eu.ha3.presencefootsteps.mixins;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import eu.ha3.presencefootsteps.PresenceFootsteps;
+import net.minecraft.client.MinecraftClient;
+
+@Mixin(MinecraftClient.class)
+abstract class MMinecraftClient {
+    @Inject(method = "render(Z)V", at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/render/GameRenderer;render(Lnet/minecraft/client/render/RenderTickCounter;Z)V"
+    ))
+    private void onRender(boolean tick, CallbackInfo info) {
+        PresenceFootsteps.getInstance().getEngine().onRender((MinecraftClient)(Object)this);
+    }
+}
@@ -0,0 +1,104 @@
+package eu.ha3.presencefootsteps.sound;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.player.PlayerEntity;
+
+/**
+ * Groups nearby entities of the same type walking on the same kind of block,
+ * so that each group produces a single stream of footsteps from its nearest member.
+ * <p>
+ * The group's size is handed to the leader's generator, which steps faster and louder to make up for the others.
+ * The rest of the group still has its motion tracked without making any sound,
+ * so whichever member leads next picks up from where it actually is.
+ */
+class Crowds {
+    /**
+     * Entities are grouped within cells of 4x4 blocks.
+     */
+    private static final int CELL_SHIFT = 2;
+
+    private final Map<Key, LivingEntity> leaders = new Object2ObjectOpenHashMap<>();
+    private final Reference2IntOpenHashMap<LivingEntity> sizes = new Reference2IntOpenHashMap<>();
+    private final List<LivingEntity> targets = new ObjectArrayList<>();
+    private final List<LivingEntity> members = new ObjectArrayList<>();
+    private final Set<LivingEntity> isMember = new ReferenceOpenHashSet<>();
+
+    Crowds() {
+        sizes.defaultReturnValue(1);
+    }
+
+    /**
+     * Groups the given targets, returning the leader of every group in the same order.
+     * Players and the camera entity are never grouped.
+     * <p>
+     * The returned list is reused between ticks.
+     */
+    public List<LivingEntity> group(List<LivingEntity> targets, Entity cameraEntity) {
+        leaders.clear();
+        sizes.clear();
+        this.targets.clear();
+        members.clear();
+        isMember.clear();
+
+        for (LivingEntity e : targets) {
+            if (e == cameraEntity || e instanceof PlayerEntity) {
+                this.targets.add(e);
+                continue;
+            }
+
+            LivingEntity leader = leaders.putIfAbsent(new Key(
+                    e.getType(),
+                    e.getBlockX() >> CELL_SHIFT,
+                    e.getBlockY(),
+                    e.getBlockZ() >> CELL_SHIFT,
+                    e.getSteppingBlockState()
+            ), e);
+
+            if (leader == null) {
+                this.targets.add(e);
+            } else {
+                sizes.addTo(leader, 1);
+                members.add(e);
+                isMember.add(e);
+            }
+        }
+
+        return this.targets;
+    }
+
+    /**
+     * Gets the entities that were grouped under another's lead on the last call to {@link #group}.
+     * <p>
+     * The returned list is reused between ticks.
+     */
+    public List<LivingEntity> getMembers() {
+        return members;
+    }
+
+    /**
+     * Returns true if the given entity was grouped under another's lead on the last call to {@link #group}.
+     */
+    public boolean isMember(LivingEntity entity) {
+        return isMember.contains(entity);
+    }
+
+    /**
+     * Gets the number of entities the given entity is producing footsteps for.
+     */
+    public int getSize(LivingEntity entity) {
+        return sizes.getInt(entity);
+    }
+
+    private record Key(EntityType<?> type, int cellX, int y, int cellZ, BlockState surface) {}
+}
@@ -9,8 +9,8 @@ import eu.ha3.presencefootsteps.config.Variator;
 import eu.ha3.presencefootsteps.sound.acoustics.Acoustic;
 import eu.ha3.presencefootsteps.sound.acoustics.AcousticLibrary;
 import eu.ha3.presencefootsteps.sound.acoustics.AcousticsPlayer;
+import eu.ha3.presencefootsteps.sound.acoustics.DeferredAcousticLibrary;
 import eu.ha3.presencefootsteps.sound.generator.Locomotion;
-import eu.ha3.presencefootsteps.sound.player.DelayedSoundPlayer;
 import eu.ha3.presencefootsteps.util.JsonObjectWriter;
 import eu.ha3.presencefootsteps.util.ResourceUtils;
 import eu.ha3.presencefootsteps.util.BlockReport.Reportable;
@@ -22,6 +22,7 @@ import eu.ha3.presencefootsteps.world.LocomotionLookup;
 import eu.ha3.presencefootsteps.world.Lookup;
 import eu.ha3.presencefootsteps.world.PrimitiveLookup;
 import eu.ha3.presencefootsteps.world.StateLookup;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
@@ -60,7 +61,7 @@ public record Isolator (
                 new HashMap<>(),
                 new BiomeVarianceLookup(),
                 new Lookup<>(),
-                new AcousticsPlayer(new DelayedSoundPlayer(engine.soundPlayer))
+                new DeferredAcousticLibrary(new AcousticsPlayer(engine.delayedSoundPlayer))
         );
     }
 
@@ -96,6 +97,23 @@ public record Isolator (
         return hasConfigurations;
     }
 
+    /**
+     * Compiles the block maps into per-state tables.
+     * <p>
+     * Must only be called once block tags are bound, as tag entries are resolved during compilation.
+     */
+    public void compile() {
+        globalBlocks().compile(Block.STATE_IDS);
+        blocks.values().forEach(lookup -> lookup.compile(Block.STATE_IDS));
+    }
+
+    /**
+     * Returns true if the block maps have been compiled and may be read from multiple threads.
+     */
+    public boolean isCompiled() {
+        return globalBlocks().isCompiled() && blocks.values().stream().allMatch(Lookup::isCompiled);
+    }
+
     @Override
     public void writeToReport(boolean full, JsonObjectWriter writer, Map<String, BlockSoundGroup> groups) throws IOException {
         writer.object(() -> {
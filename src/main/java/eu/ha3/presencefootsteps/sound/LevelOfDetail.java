@@ -0,0 +1,78 @@
+package eu.ha3.presencefootsteps.sound;
+
+import eu.ha3.presencefootsteps.PFConfig;
+
+/**
+ * How much of the footstep model to simulate for an entity, based on how far it is from the camera.
+ */
+public enum LevelOfDetail {
+    /**
+     * Everything. Steps, jumps and landings, wandering, brushing through foliage, and standing still.
+     */
+    FULL(1, true, true, true),
+    /**
+     * Steps, jumps and landings only.
+     */
+    REDUCED(1, false, true, true),
+    /**
+     * Plain steps only, simulated every other tick.
+     */
+    MINIMAL(2, false, false, true),
+    /**
+     * Motion only. The entity would be too quiet to hear, so no sounds are looked up or played.
+     */
+    CULLED(1, false, false, false);
+
+    private final int interval;
+    private final boolean hasIncidentalSounds;
+    private final boolean hasAirborneSounds;
+    private final boolean isAudible;
+
+    LevelOfDetail(int interval, boolean hasIncidentalSounds, boolean hasAirborneSounds, boolean isAudible) {
+        this.interval = interval;
+        this.hasIncidentalSounds = hasIncidentalSounds;
+        this.hasAirborneSounds = hasAirborneSounds;
+        this.isAudible = isAudible;
+    }
+
+    /**
+     * Returns true if an entity at this level should be simulated on the given tick.
+     * Entities are staggered by id so they don't all land on the same tick.
+     */
+    public boolean shouldSimulate(long time, int entityId) {
+        return interval <= 1 || (time + entityId) % interval == 0;
+    }
+
+    /**
+     * Returns true if wandering, brushing through foliage, and standing still should be simulated.
+     */
+    public boolean hasIncidentalSounds() {
+        return hasIncidentalSounds;
+    }
+
+    /**
+     * Returns true if jumping, landing and flying should be simulated.
+     */
+    public boolean hasAirborneSounds() {
+        return hasAirborneSounds;
+    }
+
+    /**
+     * Returns true if any sounds should be produced at all.
+     */
+    public boolean isAudible() {
+        return isAudible;
+    }
+
+    public static LevelOfDetail forDistance(PFConfig config, double squaredDistance) {
+        float minimal = config.getMinimalDetailDistance();
+        if (squaredDistance > minimal * minimal) {
+            return MINIMAL;
+        }
+        float reduced = config.getReducedDetailDistance();
+        if (squaredDistance > reduced * reduced) {
+            return REDUCED;
+        }
+        return FULL;
+    }
+}
@@ -1,13 +1,12 @@
 package eu.ha3.presencefootsteps.sound;
 
-import java.util.Comparator;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 import net.minecraft.resource.ResourceReloader;
 import org.jetbrains.annotations.Nullable;
@@ -17,21 +16,20 @@ import com.mojang.datafixers.util.Unit;
 
 import eu.ha3.presencefootsteps.PFConfig;
 import eu.ha3.presencefootsteps.PresenceFootsteps;
+import eu.ha3.presencefootsteps.sound.acoustics.DeferredAcousticLibrary;
+import eu.ha3.presencefootsteps.sound.generator.StepSoundGenerator;
+import eu.ha3.presencefootsteps.sound.player.DelayedSoundPlayer;
+import eu.ha3.presencefootsteps.sound.player.FrameSyncedSoundPlayer;
 import eu.ha3.presencefootsteps.sound.player.ImmediateSoundPlayer;
-import eu.ha3.presencefootsteps.util.PlayerUtil;
+import eu.ha3.presencefootsteps.sound.player.VoiceLimiter;
+import eu.ha3.presencefootsteps.world.GolemIndex;
 import eu.ha3.presencefootsteps.world.Solver;
 import eu.ha3.presencefootsteps.world.PFSolver;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.option.GameOptions;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
-import net.minecraft.entity.decoration.ArmorStandEntity;
-import net.minecraft.entity.mob.HostileEntity;
-import net.minecraft.entity.mob.ShulkerEntity;
-import net.minecraft.entity.mob.WaterCreatureEntity;
-import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.entity.vehicle.AbstractMinecartEntity;
-import net.minecraft.entity.vehicle.BoatEntity;
 import net.minecraft.network.packet.s2c.play.PlaySoundS2CPacket;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.resource.ResourceManager;
@@ -39,12 +37,15 @@ import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.profiler.Profiler;
 import net.minecraft.util.profiler.Profilers;
+import net.minecraft.world.World;
 
 public class SoundEngine implements ResourceReloader {
     public static final Identifier ID = PresenceFootsteps.id("sounds");
@@ -54,39 +55,65 @@ public class SoundEngine implements ResourceReloader {
             SoundEvents.ENTITY_PLAYER_BIG_FALL.id(),
             SoundEvents.ENTITY_PLAYER_SMALL_FALL.id()
     );
+    /**
+     * The number of targets each worker generates footsteps for when generating in parallel.
+     */
+    private static final int PARALLEL_BATCH_SIZE = 16;
+    /**
+     * The number of targets handed to the workers at once when generating in parallel within a budget.
+     * Enough for one batch per worker, so the budget is checked about as often as the workers finish their batches.
+     */
+    private static final int PARALLEL_WAVE_SIZE = PARALLEL_BATCH_SIZE * Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    /**
+     * The distance at which a sound played at full volume falls silent.
+     */
+    static final double ATTENUATION_DISTANCE = 16;
+
+    final ImmediateSoundPlayer soundPlayer = new ImmediateSoundPlayer(this);
+    final DelayedSoundPlayer delayedSoundPlayer = new DelayedSoundPlayer(new FrameSyncedSoundPlayer(soundPlayer), this);
 
     private Isolator isolator = new Isolator(this);
     private final Solver solver = new PFSolver(this);
-    final ImmediateSoundPlayer soundPlayer = new ImmediateSoundPlayer(this);
+    private final GolemIndex golemIndex = new GolemIndex();
+    private final SteppingTargets steppingTargets = new SteppingTargets(this);
+    private final StepScheduler scheduler = new StepScheduler();
+    private final Crowds crowds = new Crowds();
 
     private final PFConfig config;
 
     private boolean hasConfigurations;
+    private boolean needsSoundValidation;
+
+    private long frameTime;
+    private int epoch;
 
     public SoundEngine(PFConfig config) {
         this.config = config;
     }
 
     public float getVolumeForSource(LivingEntity source) {
-        float volume = config.getGlobalVolume() / 100F;
-
-        if (source instanceof PlayerEntity) {
-            if (PlayerUtil.isClientPlayer(source)) {
-                volume *= config.getClientPlayerVolume() * 0.01F;
-            } else {
-                volume *= config.getOtherPlayerVolume() * 0.01F;
-            }
-        } else if (source instanceof HostileEntity) {
-            volume *= config.getHostileEntitiesVolume() * 0.01F;
-        } else {
-            volume *= config.getPassiveEntitiesVolume() * 0.01F;
-        }
+        return getVolumeProfile(source).getVolume();
+    }
 
-        float runningProgress = ((StepSoundSource) source).getStepGenerator(this)
-                .map(generator -> generator.getMotionTracker().getSpeedScalingRatio(source))
-                .orElse(0F);
+    public VolumeProfile getVolumeProfile(LivingEntity source) {
+        return ((StepSoundSource) source).getStepGenerator(this)
+                .map(StepSoundGenerator::getVolumeProfile)
+                .orElseGet(() -> new VolumeProfile().update(source, config, null));
+    }
 
-        return volume * (1F + ((config.getRunningVolumeIncrease() / 100F) * runningProgress));
+    /**
+     * Estimates how loud an entity's footsteps will be at the camera, before any sounds are looked up.
+     * <p>
+     * This combines the volume sliders that apply to the entity with the linear falloff sounds are played with,
+     * assuming an acoustic at full volume. Anything louder than that may carry a little further than estimated.
+     */
+    public float getAudibility(LivingEntity source, double squaredDistance) {
+        GameOptions options = MinecraftClient.getInstance().options;
+        float volume = getVolumeForSource(source)
+                * options.getSoundVolume(SoundCategory.MASTER)
+                * options.getSoundVolume(source.getSoundCategory());
+        double range = Math.max(1, volume) * ATTENUATION_DISTANCE;
+        return volume * (float)Math.max(0, 1 - Math.sqrt(squaredDistance) / range);
     }
 
     public Isolator getIsolator() {
@@ -97,6 +124,38 @@ public class SoundEngine implements ResourceReloader {
         return solver;
     }
 
+    public VoiceLimiter getVoiceLimiter() {
+        return soundPlayer.getVoiceLimiter();
+    }
+
+    public DelayedSoundPlayer getDelayedSoundPlayer() {
+        return delayedSoundPlayer;
+    }
+
+    public StepScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public GolemIndex getGolemIndex() {
+        return golemIndex;
+    }
+
+    /**
+     * The time at which the current frame started, in milliseconds.
+     * Generators use this rather than the wall clock so that every entity sees the same time no matter when or where it is simulated.
+     */
+    public long getFrameTime() {
+        return frameTime;
+    }
+
+    /**
+     * A counter that changes whenever the loaded data or configuration does.
+     * Anything derived from either may be kept for as long as this stays the same.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
     public PFConfig getConfig() {
         return config;
     }
@@ -127,60 +186,120 @@ public class SoundEngine implements ResourceReloader {
                 && (client.isInSingleplayer() || config.getMultiplayer());
     }
 
-    private Stream<? extends Entity> getTargets(final Entity cameraEntity) {
-        final List<? extends Entity> entities = cameraEntity.getEntityWorld().getOtherEntities(null, cameraEntity.getBoundingBox().expand(16), e -> {
-            return e instanceof LivingEntity
-                    && !config.isIgnoredForFootsteps(e.getType())
-                    && !(e instanceof WaterCreatureEntity)
-                    && !(e instanceof ShulkerEntity
-                            || e instanceof ArmorStandEntity
-                            || e instanceof BoatEntity
-                            || e instanceof AbstractMinecartEntity)
-                        && !isolator.golems().contains(e.getType())
-                        && !e.hasVehicle()
-                        && !((LivingEntity)e).isSleeping()
-                        && (!(e instanceof PlayerEntity) || !e.isSpectator())
-                        && e.squaredDistanceTo(cameraEntity) <= 256
-                        && config.getEntitySelector().test(e);
-        });
-
-        final Comparator<Entity> nearest = Comparator.comparingDouble(e -> e.squaredDistanceTo(cameraEntity));
-
-        if (entities.size() < config.getMaxSteppingEntities()) {
-            return entities.stream();
+    public void onFrame(MinecraftClient client, Entity cameraEntity) {
+        if (isRunning(client)) {
+            if (needsSoundValidation) {
+                // sounds may be registered after we finish reloading, so wait until everything has loaded
+                needsSoundValidation = false;
+                isolator.acoustics().validateSounds(client.getSoundManager());
+            }
+            frameTime = System.currentTimeMillis();
+            golemIndex.update(cameraEntity, isolator.golems());
+            solver.onTick(cameraEntity.getEntityWorld());
+
+            List<LivingEntity> targets = steppingTargets.getTargets(cameraEntity);
+            if (config.getCrowds()) {
+                targets = crowds.group(targets, cameraEntity);
+            }
+            if (config.getParallelSolving() && !config.getVisualiser() && isolator.isCompiled()) {
+                scheduler.run(targets, cameraEntity, config.getFootstepBudget(), PARALLEL_WAVE_SIZE, wave -> generateFootstepsInParallel(wave, cameraEntity));
+            } else {
+                scheduler.run(targets, cameraEntity, config.getFootstepBudget(), e -> generateFootsteps(e, cameraEntity));
+            }
+            if (config.getCrowds()) {
+                // members are silent, so this only keeps their motion up to date for when one of them leads
+                crowds.getMembers().forEach(e -> generateFootsteps(e, cameraEntity));
+            }
+
+            isolator.acoustics().think(); // Delayed sounds
         }
-        Set<Integer> alreadyVisited = new HashSet<>();
-        return entities.stream()
-            .sorted(nearest)
-                    // Always play sounds for players and the entities closest to the camera
-                        // If multiple entities share the same block, only play sounds for one of each distinct type
-            .filter(e -> e == cameraEntity || e instanceof PlayerEntity || (alreadyVisited.size() < config.getMaxSteppingEntities() && alreadyVisited.add(Objects.hash(e.getType(), e.getBlockPos()))));
     }
 
-    public void onFrame(MinecraftClient client, Entity cameraEntity) {
+    /**
+     * Called once per render frame, to play any sounds waiting for the frame they should be heard on.
+     */
+    public void onRender(MinecraftClient client) {
         if (isRunning(client)) {
-            getTargets(cameraEntity).forEach(e -> {
-                try {
-                    ((StepSoundSource) e).getStepGenerator(this).ifPresent(generator -> {
-                        generator.generateFootsteps();
-                    });
-                } catch (Throwable t) {
-                    CrashReport report = CrashReport.create(t, "Generating PF sounds for entity");
-                    CrashReportSection section = report.addElement("Entity being ticked");
-                    if (e == null) {
-                        section.add("Entity Type", "null");
-                    } else {
-                        e.populateCrashReport(section);
-                        section.add("Entity's Locomotion Type", isolator.locomotions().lookup(e));
-                        section.add("Entity is Golem", isolator.golems().contains(e.getType()));
-                    }
-                    config.populateCrashReport(report.addElement("PF Configuration"));
-                    throw new CrashException(report);
+            isolator.acoustics().think();
+        }
+    }
+
+    /**
+     * Generates footsteps for batches of targets on the worker pool, whilst the client thread waits for them.
+     * <p>
+     * Since the client thread is blocked for the duration, the world and entities are not modified whilst being read,
+     * and every generator sees the same frame time. Any acoustics produced are captured and played afterwards on the client thread,
+     * in the same order and with the same random choices as they would have been if generated sequentially.
+     */
+    private void generateFootstepsInParallel(List<? extends Entity> targets, Entity cameraEntity) {
+        if (targets.size() <= PARALLEL_BATCH_SIZE) {
+            targets.forEach(e -> generateFootsteps(e, cameraEntity));
+            return;
+        }
+
+        // Generators are looked up here so the shared tables that resolve them are only ever written by the client thread.
+        // Submitting the batches afterwards makes those writes visible to the workers.
+        for (Entity e : targets) {
+            ((StepSoundSource) e).getStepGenerator(this);
+        }
+
+        generateInBatches(targets, Util.getMainWorkerExecutor(), e -> generateFootsteps(e, cameraEntity));
+    }
+
+    /**
+     * Runs the generator for batches of targets on the given executor, then plays back the acoustics
+     * each batch produced on the calling thread, in target order.
+     */
+    static <T> void generateInBatches(List<T> targets, Executor executor, Consumer<? super T> generator) {
+        List<CompletableFuture<DeferredAcousticLibrary.Recording>> batches = new ArrayList<>();
+        for (int start = 0; start < targets.size(); start += PARALLEL_BATCH_SIZE) {
+            List<T> batch = targets.subList(start, Math.min(targets.size(), start + PARALLEL_BATCH_SIZE));
+            batches.add(CompletableFuture.supplyAsync(() -> DeferredAcousticLibrary.record(() -> batch.forEach(generator)), executor));
+        }
+
+        for (var batch : batches) {
+            try {
+                batch.join().play();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof CrashException crash) {
+                    throw crash;
                 }
+                throw new CrashException(CrashReport.create(e.getCause(), "Generating PF sounds in parallel"));
+            }
+        }
+    }
+
+    private void generateFootsteps(Entity e, Entity cameraEntity) {
+        try {
+            ((StepSoundSource) e).getStepGenerator(this).ifPresent(generator -> {
+                generator.setCrowdSize(config.getCrowds() && e instanceof LivingEntity l ? crowds.getSize(l) : 1);
+                generator.generateFootsteps(getLevelOfDetail(e, cameraEntity));
             });
+        } catch (Throwable t) {
+            CrashReport report = CrashReport.create(t, "Generating PF sounds for entity");
+            CrashReportSection section = report.addElement("Entity being ticked");
+            if (e == null) {
+                section.add("Entity Type", "null");
+            } else {
+                e.populateCrashReport(section);
+                section.add("Entity's Locomotion Type", isolator.locomotions().lookup(e));
+                section.add("Entity is Golem", isolator.golems().contains(e.getType()));
+            }
+            config.populateCrashReport(report.addElement("PF Configuration"));
+            throw new CrashException(report);
+        }
+    }
 
-            isolator.acoustics().think(); // Delayed sounds
+    private LevelOfDetail getLevelOfDetail(Entity e, Entity cameraEntity) {
+        if (config.getCrowds() && e instanceof LivingEntity l && crowds.isMember(l)) {
+            return LevelOfDetail.CULLED;
+        }
+        double distance = e.squaredDistanceTo(cameraEntity);
+        float minAudibleVolume = config.getMinAudibleVolume();
+        if (minAudibleVolume > 0 && e instanceof LivingEntity l && getAudibility(l, distance) < minAudibleVolume) {
+            return LevelOfDetail.CULLED;
         }
+        return LevelOfDetail.forDistance(config, distance);
     }
 
     public boolean onSoundRecieved(PlaySoundS2CPacket packet) {
@@ -211,10 +330,45 @@ public class SoundEngine implements ResourceReloader {
     public void reloadEverything(ResourceManager manager) {
         shutdown();
         hasConfigurations = isolator.load(manager);
+        needsSoundValidation = hasConfigurations;
+        epoch++;
+        if (hasConfigurations && MinecraftClient.getInstance().world != null) {
+            isolator.compile();
+        }
+    }
+
+    public void onTagsLoaded() {
+        if (hasConfigurations) {
+            Profiler profiler = Profilers.get();
+            profiler.push("Compiling PF block maps");
+            isolator.compile();
+            solver.invalidate();
+            profiler.pop();
+        }
+    }
+
+    public void onEntityLoaded(Entity entity, World world) {
+        steppingTargets.onEntityLoaded(entity, world);
+    }
+
+    public void onEntityUnloaded(Entity entity, World world) {
+        steppingTargets.onEntityUnloaded(entity, world);
+    }
+
+    public void onBlockChanged(BlockPos pos) {
+        solver.onBlockChanged(pos);
+    }
+
+    public void onChunkChanged(ChunkPos pos) {
+        solver.onChunkChanged(pos);
     }
 
     public void shutdown() {
         isolator = new Isolator(this);
         hasConfigurations = false;
+        delayedSoundPlayer.clear();
+        epoch++;
+        solver.invalidate();
+        steppingTargets.invalidate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package eu.ha3.presencefootsteps.sound;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.player.PlayerEntity;
+
+/**
+ * Spreads footstep generation over several ticks so that no single tick spends more than its budget on it.
+ * <p>
+ * The camera entity and players always run. Everything else runs nearest first until the budget runs out,
+ * and whatever is left over goes to the front of the queue on the next tick, so every entity gets its turn.
+ * Generators catch up on any ticks they missed the next time they run.
+ */
+public class StepScheduler {
+    private final List<LivingEntity> deferred = new ObjectArrayList<>();
+    private final List<LivingEntity> ordered = new ObjectArrayList<>();
+    private final Set<LivingEntity> scheduled = new ReferenceOpenHashSet<>();
+
+    private int overruns;
+    private int lastDeferred;
+
+    /**
+     * Generates footsteps for as many of the targets as fit in the budget.
+     *
+     * @param targets      The entities to generate footsteps for, nearest first.
+     * @param budgetMicros The time allowed, in microseconds. Zero or less means no limit.
+     */
+    public void run(List<LivingEntity> targets, Entity cameraEntity, int budgetMicros, Consumer<LivingEntity> generator) {
+        run(targets, cameraEntity, budgetMicros, 1, wave -> wave.forEach(generator));
+    }
+
+    /**
+     * Generates footsteps for as many of the targets as fit in the budget, handing them over a wave at a time.
+     * The budget is only checked between waves, so a wave that starts within budget always finishes.
+     *
+     * @param targets      The entities to generate footsteps for, nearest first.
+     * @param budgetMicros The time allowed, in microseconds. Zero or less means no limit, and every target is handed over in a single wave.
+     * @param waveSize     The most entities to hand over at once.
+     */
+    public void run(List<LivingEntity> targets, Entity cameraEntity, int budgetMicros, int waveSize, Consumer<List<LivingEntity>> generator) {
+        if (budgetMicros <= 0) {
+            deferred.clear();
+            lastDeferred = 0;
+            if (!targets.isEmpty()) {
+                generator.accept(targets);
+            }
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final long budget = budgetMicros * 1000L;
+
+        ordered.clear();
+        scheduled.clear();
+        scheduled.addAll(targets);
+
+        for (LivingEntity e : targets) {
+            if (isPriority(e, cameraEntity)) {
+                ordered.add(e);
+            }
+        }
+        final int priorityCount = ordered.size();
+        for (LivingEntity e : deferred) {
+            // entities that have left range in the meantime are dropped
+            if (scheduled.remove(e) && !isPriority(e, cameraEntity)) {
+                ordered.add(e);
+            }
+        }
+        for (LivingEntity e : targets) {
+            if (scheduled.contains(e) && !isPriority(e, cameraEntity)) {
+                ordered.add(e);
+            }
+        }
+        deferred.clear();
+
+        for (int i = 0; i < ordered.size(); i += waveSize) {
+            if (i >= priorityCount && System.nanoTime() - start > budget) {
+                deferred.addAll(ordered.subList(i, ordered.size()));
+                overruns++;
+                break;
+            }
+            generator.accept(ordered.subList(i, Math.min(ordered.size(), i + waveSize)));
+        }
+
+        lastDeferred = deferred.size();
+    }
+
+    private boolean isPriority(LivingEntity e, Entity cameraEntity) {
+        return e == cameraEntity || e instanceof PlayerEntity;
+    }
+
+    /**
+     * The number of ticks that ran out of time since the game started.
+     */
+    public int getOverrunCount() {
+        return overruns;
+    }
+
+    /**
+     * The number of entities whose footsteps were put off until the next tick.
+     */
+    public int getDeferredCount() {
+        return lastDeferred;
+    }
+}
@@ -10,6 +10,11 @@ import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.player.PlayerEntity;
 
 public interface StepSoundSource {
+    /**
+     * Gets the generator for this entity, creating it if the entity's locomotion has changed or PF has reloaded.
+     * <p>
+     * The first call after a reload must happen on the client thread. Calls after that may come from any thread.
+     */
     Optional<StepSoundGenerator> getStepGenerator(SoundEngine engine);
 
     boolean isStepBlocked();
@@ -17,6 +22,7 @@ public interface StepSoundSource {
     final class Container implements StepSoundSource {
         private Locomotion locomotion;
         private Optional<StepSoundGenerator> stepSoundGenerator;
+        private int epoch;
 
         private final LivingEntity entity;
 
@@ -26,7 +32,12 @@ public interface StepSoundSource {
 
         @Override
         public Optional<StepSoundGenerator> getStepGenerator(SoundEngine engine) {
+            if (stepSoundGenerator != null && epoch == engine.getEpoch()) {
+                return stepSoundGenerator;
+            }
+
             Locomotion loco = engine.getIsolator().locomotions().lookup(entity);
+            epoch = engine.getEpoch();
 
             if (stepSoundGenerator == null || loco != locomotion) {
                 locomotion = loco;
@@ -0,0 +1,271 @@
+package eu.ha3.presencefootsteps.sound;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.decoration.ArmorStandEntity;
+import net.minecraft.entity.mob.ShulkerEntity;
+import net.minecraft.entity.mob.WaterCreatureEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.registry.Registries;
+import net.minecraft.world.World;
+
+/**
+ * Keeps track of every loaded entity that could produce footsteps, so the world doesn't need to be searched every tick.
+ * <p>
+ * Entities are added and removed as the client loads and unloads them. Checks that depend only on an entity's type are
+ * done once per type, leaving only its position and current state to check each tick.
+ * Entities are kept in rings by distance to the camera so the nearest can be picked without sorting everything.
+ * Each remembers how far it can move relative to the camera before it could cross into another ring,
+ * and its ring is only worked out again once it has moved that far.
+ */
+class SteppingTargets {
+    /**
+     * How far from the camera entities can be to produce footsteps.
+     */
+    private static final double RANGE = 16;
+    private static final int RINGS = 8;
+    private static final double RING_WIDTH = RANGE / RINGS;
+    private static final int OUT_OF_RANGE = -1;
+
+    private static final Comparator<Tracked> NEAREST_FIRST = Comparator.comparingDouble(t -> t.distance);
+
+    private static final byte UNKNOWN = 0;
+    private static final byte ELIGIBLE = 1;
+    private static final byte INELIGIBLE = 2;
+
+    private final SoundEngine engine;
+
+    private final Map<Entity, Tracked> tracked = new Reference2ObjectOpenHashMap<>();
+    private final Set<Tracked>[] rings;
+    private final List<Tracked> boundary = new ObjectArrayList<>();
+    private final List<LivingEntity> targets = new ObjectArrayList<>();
+    private final IntSet alreadyVisited = new IntOpenHashSet();
+
+    /**
+     * Whether each entity type can produce footsteps at all, indexed by raw id.
+     * Filled in the first time an entity of each type is seen.
+     */
+    private byte[] eligibility = new byte[0];
+
+    @Nullable
+    private World world;
+
+    @SuppressWarnings("unchecked")
+    SteppingTargets(SoundEngine engine) {
+        this.engine = engine;
+        this.rings = new Set[RINGS];
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new ReferenceLinkedOpenHashSet<>();
+        }
+    }
+
+    public void onEntityLoaded(Entity entity, World world) {
+        if (world == this.world && entity instanceof LivingEntity living && isEligible(living)) {
+            tracked.computeIfAbsent(entity, e -> new Tracked(living));
+        }
+    }
+
+    public void onEntityUnloaded(Entity entity, World world) {
+        if (world == this.world) {
+            @Nullable
+            Tracked t = tracked.remove(entity);
+            if (t != null && t.ring != OUT_OF_RANGE) {
+                rings[t.ring].remove(t);
+            }
+        }
+    }
+
+    /**
+     * Discards everything so it will be found again on the next tick.
+     * Called when the data that type checks depend on has changed.
+     */
+    public void invalidate() {
+        world = null;
+        clear();
+        eligibility = new byte[0];
+    }
+
+    private void clear() {
+        for (var ring : rings) {
+            ring.clear();
+        }
+        tracked.clear();
+    }
+
+    /**
+     * Gets the entities that should produce footsteps this tick, nearest first.
+     * <p>
+     * The returned list is reused between ticks.
+     */
+    public List<LivingEntity> getTargets(Entity cameraEntity) {
+        World world = cameraEntity.getEntityWorld();
+        if (world != this.world) {
+            this.world = world;
+            clear();
+            if (world instanceof ClientWorld clientWorld) {
+                clientWorld.getEntities().forEach(entity -> onEntityLoaded(entity, world));
+            }
+        }
+
+        final double cameraX = cameraEntity.getX();
+        final double cameraY = cameraEntity.getY();
+        final double cameraZ = cameraEntity.getZ();
+        for (Tracked t : tracked.values()) {
+            double x = t.entity.getX() - cameraX;
+            double y = t.entity.getY() - cameraY;
+            double z = t.entity.getZ() - cameraZ;
+            double movedX = x - t.x;
+            double movedY = y - t.y;
+            double movedZ = z - t.z;
+            if (movedX * movedX + movedY * movedY + movedZ * movedZ >= t.slackSquared) {
+                place(t, x, y, z);
+            }
+        }
+
+        targets.clear();
+        for (var ring : rings) {
+            for (Tracked t : ring) {
+                if (isActive(t.entity)) {
+                    targets.add(t.entity);
+                }
+            }
+        }
+
+        final int maxSteppingEntities = engine.getConfig().getMaxSteppingEntities();
+        if (targets.size() < maxSteppingEntities) {
+            return targets;
+        }
+
+        targets.clear();
+        alreadyVisited.clear();
+        for (var ring : rings) {
+            Collection<Tracked> visiting = ring;
+            if (alreadyVisited.size() < maxSteppingEntities && alreadyVisited.size() + ring.size() > maxSteppingEntities) {
+                // the limit may be reached part way through this ring, so only here does the order within it matter
+                boundary.clear();
+                for (Tracked t : ring) {
+                    t.distance = t.entity.squaredDistanceTo(cameraEntity);
+                    boundary.add(t);
+                }
+                boundary.sort(NEAREST_FIRST);
+                visiting = boundary;
+            }
+            for (Tracked t : visiting) {
+                LivingEntity e = t.entity;
+                // Always play sounds for players and the entities closest to the camera
+                // If multiple entities share the same block, only play sounds for one of each distinct type
+                if (isActive(e) && (e == cameraEntity || e instanceof PlayerEntity
+                        || (alreadyVisited.size() < maxSteppingEntities && alreadyVisited.add(31 * e.getType().hashCode() + e.getBlockPos().hashCode())))) {
+                    targets.add(e);
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Works out which ring an entity belongs in from its position relative to the camera,
+     * and how far it can move from there before that could change.
+     */
+    private void place(Tracked t, double x, double y, double z) {
+        double distance = Math.sqrt(x * x + y * y + z * z);
+        int ring;
+        double slack;
+        if (distance > RANGE) {
+            ring = OUT_OF_RANGE;
+            slack = distance - RANGE;
+        } else {
+            ring = Math.min(RINGS - 1, (int)(distance / RING_WIDTH));
+            slack = Math.min(distance - ring * RING_WIDTH, (ring + 1) * RING_WIDTH - distance);
+        }
+
+        t.x = x;
+        t.y = y;
+        t.z = z;
+        t.slackSquared = slack * slack;
+        if (ring != t.ring) {
+            if (t.ring != OUT_OF_RANGE) {
+                rings[t.ring].remove(t);
+            }
+            if (ring != OUT_OF_RANGE) {
+                rings[ring].add(t);
+            }
+            t.ring = ring;
+        }
+    }
+
+    private boolean isEligible(Entity e) {
+        if (!(e instanceof LivingEntity)) {
+            return false;
+        }
+
+        int id = Registries.ENTITY_TYPE.getRawId(e.getType());
+        if (id < 0) {
+            return isEligibleType(e);
+        }
+        if (id >= eligibility.length) {
+            eligibility = Arrays.copyOf(eligibility, Math.max(id + 1, Registries.ENTITY_TYPE.size()));
+        }
+        if (eligibility[id] == UNKNOWN) {
+            eligibility[id] = isEligibleType(e) ? ELIGIBLE : INELIGIBLE;
+        }
+        return eligibility[id] == ELIGIBLE;
+    }
+
+    /**
+     * Checks everything that is decided by an entity's type alone.
+     */
+    private boolean isEligibleType(Entity e) {
+        return !engine.getConfig().isIgnoredForFootsteps(e.getType())
+                && !(e instanceof WaterCreatureEntity)
+                && !(e instanceof ShulkerEntity || e instanceof ArmorStandEntity)
+                && !engine.getIsolator().golems().contains(e.getType())
+                && engine.getConfig().getEntitySelector().test(e);
+    }
+
+    private boolean isActive(LivingEntity e) {
+        return !e.isRemoved()
+                && !e.hasVehicle()
+                && !e.isSleeping()
+                && (!(e instanceof PlayerEntity) || !e.isSpectator());
+    }
+
+    private static final class Tracked {
+        private final LivingEntity entity;
+        private int ring = OUT_OF_RANGE;
+        /**
+         * The entity's position relative to the camera when its ring was last worked out.
+         */
+        private double x;
+        private double y;
+        private double z;
+        /**
+         * How far the entity may move from there, squared, before it could be in a different ring.
+         * Starts out negative so the entity is placed the first time it is seen.
+         */
+        private double slackSquared = -1;
+        /**
+         * The entity's squared distance to the camera, only kept up to date whilst sorting.
+         */
+        private double distance;
+
+        Tracked(LivingEntity entity) {
+            this.entity = entity;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package eu.ha3.presencefootsteps.sound;
+
+import java.util.Locale;
+
+import org.jetbrains.annotations.Nullable;
+
+import eu.ha3.presencefootsteps.PFConfig;
+import eu.ha3.presencefootsteps.sound.generator.MotionTracker;
+import eu.ha3.presencefootsteps.util.PlayerUtil;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.mob.HostileEntity;
+import net.minecraft.entity.player.PlayerEntity;
+
+/**
+ * The volume an entity's sounds are played at before any per-sound variation, according to the user's volume settings.
+ * <p>
+ * Worked out at most once per tick and passed along with every sound the entity plays as the {@value #KEY} option,
+ * so a step made up of several layers doesn't work it out again for each one.
+ */
+public final class VolumeProfile implements Options {
+    public static final String KEY = "source_volume";
+
+    private long time = Long.MIN_VALUE;
+    @Nullable
+    private Source source;
+    private float sourceVolume;
+    private float runningProgress;
+    private float volume = 1;
+
+    /**
+     * Brings this profile up to date for the current tick, if it isn't already.
+     */
+    public VolumeProfile update(LivingEntity entity, PFConfig config, @Nullable MotionTracker motionTracker) {
+        long time = entity.getEntityWorld().getTime();
+        if (time == this.time) {
+            return this;
+        }
+        this.time = time;
+
+        if (source == null) {
+            source = Source.of(entity);
+        }
+        sourceVolume = config.getGlobalVolume() * source.getVolume(config) * 0.0001F;
+        runningProgress = motionTracker == null ? 0 : motionTracker.getSpeedScalingRatio(entity);
+        volume = sourceVolume * (1F + ((config.getRunningVolumeIncrease() / 100F) * runningProgress));
+        return this;
+    }
+
+    /**
+     * Gets the final volume multiplier for this entity's sounds.
+     */
+    public float getVolume() {
+        return volume;
+    }
+
+    /**
+     * Gets how important a sound from this entity is compared to others, for when not everything can be played.
+     * The kind of entity matters most, followed by how loud the sound will be at the camera.
+     *
+     * @param volume          The sound's final volume.
+     * @param squaredDistance The squared distance from the camera to the entity.
+     */
+    public float getPriority(float volume, double squaredDistance) {
+        double range = Math.max(1, volume) * SoundEngine.ATTENUATION_DISTANCE;
+        float loudness = volume * (float)Math.max(0, 1 - Math.sqrt(squaredDistance) / range);
+        return (source == null ? 0 : source.getRank()) + Math.min(loudness, 0.999F);
+    }
+
+    @Override
+    public boolean containsKey(String option) {
+        return KEY.equals(option);
+    }
+
+    @Override
+    public float get(String option) {
+        return containsKey(option) ? volume : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH, "%s %.0f%% (%.0f%% running) = %.0f%%",
+                source,
+                sourceVolume * 100,
+                runningProgress * 100,
+                volume * 100
+        );
+    }
+
+    private enum Source {
+        CLIENT_PLAYER,
+        OTHER_PLAYER,
+        HOSTILE,
+        PASSIVE;
+
+        int getRank() {
+            return PASSIVE.ordinal() - ordinal();
+        }
+
+        int getVolume(PFConfig config) {
+            return switch (this) {
+                case CLIENT_PLAYER -> config.getClientPlayerVolume();
+                case OTHER_PLAYER -> config.getOtherPlayerVolume();
+                case HOSTILE -> config.getHostileEntitiesVolume();
+                case PASSIVE -> config.getPassiveEntitiesVolume();
+            };
+        }
+
+        static Source of(LivingEntity entity) {
+            if (entity instanceof PlayerEntity) {
+                return PlayerUtil.isClientPlayer(entity) ? CLIENT_PLAYER : OTHER_PLAYER;
+            }
+            return entity instanceof HostileEntity ? HOSTILE : PASSIVE;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package eu.ha3.presencefootsteps.sound.acoustics;
 
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import com.google.gson.JsonElement;
@@ -13,6 +14,7 @@ import com.mojang.serialization.MapCodec;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMaps;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
@@ -101,6 +103,11 @@ public interface Acoustic {
      */
     void playSound(SoundPlayer player, LivingEntity location, State event, Options inputOptions);
 
+    /**
+     * Passes every sound this acoustic can play to the given consumer.
+     */
+    void forEachSound(Consumer<PreparedSound> consumer);
+
     String type();
 
     @Deprecated
@@ -4,6 +4,7 @@ import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
 import eu.ha3.presencefootsteps.world.Association;
 import eu.ha3.presencefootsteps.world.SoundsKey;
+import net.minecraft.client.sound.SoundManager;
 import net.minecraft.entity.LivingEntity;
 
 public interface AcousticLibrary {
@@ -12,9 +13,14 @@ public interface AcousticLibrary {
      */
     void addAcoustic(String name, Acoustic acoustic);
 
-    void playStep(Association assos, State eventType, Options options);
+    void playStep(LivingEntity location, Association assos, State eventType, Options options);
 
     void playAcoustic(LivingEntity location, SoundsKey acousticName, State event, Options options);
 
     void think();
+
+    /**
+     * Checks that every sound the loaded acoustics can play exists, reporting any that don't.
+     */
+    void validateSounds(SoundManager manager);
 }
\ No newline at end of file
@@ -3,19 +3,27 @@ package eu.ha3.presencefootsteps.sound.acoustics;
 import eu.ha3.presencefootsteps.PresenceFootsteps;
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import eu.ha3.presencefootsteps.world.Association;
 import eu.ha3.presencefootsteps.world.SoundsKey;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.client.sound.SoundManager;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.sound.BlockSoundGroup;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.util.Identifier;
 
 import java.util.Map;
+import java.util.Set;
 
 public class AcousticsPlayer implements AcousticLibrary {
     private final Map<String, Acoustic> acoustics = new Object2ObjectOpenHashMap<>();
+    private final Map<SoundEvent, PreparedSound> vanillaSounds = new Reference2ObjectOpenHashMap<>();
 
     private final SoundPlayer soundPlayer;
 
@@ -31,40 +39,40 @@ public class AcousticsPlayer implements AcousticLibrary {
     }
 
     @Override
-    public void playStep(Association association, State event, Options options) {
+    public void playStep(LivingEntity location, Association association, State event, Options options) {
         if (association.isSilent()) {
             return;
         }
 
         if (association.dry().isResult() && !association.dry().isVanilla()) {
-            playAcoustic(association.source(), association.dry(), event, options);
+            playAcoustic(location, association.dry(), event, options);
         } else {
-            playVanillaStep(association, options);
+            playVanillaStep(location, association, options);
         }
 
         if (association.wet().isEmitter() && Options.WET_VOLUME_OPTIONS.get("volume_percentage") > 0.1F) {
-            playAcoustic(association.source(), association.wet(), event, options.and(Options.WET_VOLUME_OPTIONS));
+            playAcoustic(location, association.wet(), event, options.and(Options.WET_VOLUME_OPTIONS));
         }
 
         if (association.foliage().isEmitter() && Options.FOLIAGE_VOLUME_OPTIONS.get("volume_percentage") > 0.1F) {
-            playAcoustic(association.source(), association.foliage(), event, options.and(Options.FOLIAGE_VOLUME_OPTIONS));
+            playAcoustic(location, association.foliage(), event, options.and(Options.FOLIAGE_VOLUME_OPTIONS));
         }
     }
 
     @SuppressWarnings("deprecation")
-    private void playVanillaStep(Association association, Options options) {
+    private void playVanillaStep(LivingEntity location, Association association, Options options) {
         if (association.state().isLiquid()) {
             return;
         }
         BlockSoundGroup soundType = association.state().getSoundGroup();
-        BlockState above = association.source().getEntityWorld().getBlockState(association.pos().up());
+        BlockState above = location.getEntityWorld().getBlockState(association.pos().up());
 
         if (above.isOf(Blocks.SNOW)) {
             soundType = above.getSoundGroup();
         }
 
-        soundPlayer.playSound(association.source(),
-                soundType.getStepSound().id().toString(),
+        soundPlayer.playSound(location,
+                vanillaSounds.computeIfAbsent(soundType.getStepSound(), event -> PreparedSound.of(event.id())),
                 soundType.getVolume() * 0.15F,
                 soundType.getPitch(),
                 options
@@ -87,4 +95,32 @@ public class AcousticsPlayer implements AcousticLibrary {
     public void think() {
         soundPlayer.think();
     }
+
+    @Override
+    public void validateSounds(SoundManager manager) {
+        Set<String> invalid = new ObjectLinkedOpenHashSet<>();
+        Set<Identifier> missing = new ObjectLinkedOpenHashSet<>();
+        acoustics.values().forEach(acoustic -> acoustic.forEachSound(sound -> {
+            if (sound.isEmpty()) {
+                return;
+            }
+            if (!sound.isValid()) {
+                invalid.add(sound.name());
+                return;
+            }
+            if (manager.get(sound.stereo()) == null) {
+                missing.add(sound.stereo());
+            }
+            if (manager.get(sound.mono()) == null) {
+                missing.add(sound.mono());
+            }
+        }));
+
+        if (!invalid.isEmpty()) {
+            PresenceFootsteps.logger.warn("Acoustics refer to " + invalid.size() + " invalid sound names: " + invalid);
+        }
+        if (!missing.isEmpty()) {
+            PresenceFootsteps.logger.warn("Acoustics refer to " + missing.size() + " sounds that don't exist: " + missing);
+        }
+    }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package eu.ha3.presencefootsteps.sound.acoustics;
 
+import java.util.function.Consumer;
+
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import net.minecraft.entity.LivingEntity;
 
@@ -35,4 +38,9 @@ record ChanceAcoustic(
             acoustic.playSound(player, location, event, inputOptions);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void forEachSound(Consumer<PreparedSound> consumer) {
+        acoustic.forEachSound(consumer);
+    }
+}
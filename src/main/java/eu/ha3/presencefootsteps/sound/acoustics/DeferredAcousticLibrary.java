@@ -0,0 +1,93 @@
+package eu.ha3.presencefootsteps.sound.acoustics;
+
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import eu.ha3.presencefootsteps.sound.Options;
+import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.world.Association;
+import eu.ha3.presencefootsteps.world.SoundsKey;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.client.sound.SoundManager;
+import net.minecraft.entity.LivingEntity;
+
+/**
+ * An acoustic library that holds on to any acoustics requested from a recording thread,
+ * so they can be played back later from the client thread.
+ * <p>
+ * Acoustics pick their sounds, volumes and pitches at random when played, so deferring them whole
+ * keeps those choices on the client thread and in the same order as if nothing had been recorded.
+ * Acoustics requested outside of a recording are passed straight through.
+ */
+public class DeferredAcousticLibrary implements AcousticLibrary {
+    private static final ThreadLocal<List<Runnable>> RECORDING = new ThreadLocal<>();
+
+    private final AcousticLibrary library;
+
+    public DeferredAcousticLibrary(AcousticLibrary library) {
+        this.library = library;
+    }
+
+    /**
+     * Runs a task, capturing every acoustic it tries to play on the current thread.
+     *
+     * @return The captured acoustics, to be played with {@link Recording#play()}.
+     */
+    public static Recording record(Runnable task) {
+        @Nullable
+        List<Runnable> previous = RECORDING.get();
+        List<Runnable> acoustics = new ObjectArrayList<>();
+        RECORDING.set(acoustics);
+        try {
+            task.run();
+        } finally {
+            RECORDING.set(previous);
+        }
+        return new Recording(acoustics);
+    }
+
+    private void play(Runnable acoustic) {
+        @Nullable
+        List<Runnable> recording = RECORDING.get();
+        if (recording == null) {
+            acoustic.run();
+        } else {
+            recording.add(acoustic);
+        }
+    }
+
+    @Override
+    public void addAcoustic(String name, Acoustic acoustic) {
+        library.addAcoustic(name, acoustic);
+    }
+
+    @Override
+    public void playStep(LivingEntity location, Association assos, State eventType, Options options) {
+        play(() -> library.playStep(location, assos, eventType, options));
+    }
+
+    @Override
+    public void playAcoustic(LivingEntity location, SoundsKey acousticName, State event, Options options) {
+        play(() -> library.playAcoustic(location, acousticName, event, options));
+    }
+
+    @Override
+    public void think() {
+        library.think();
+    }
+
+    @Override
+    public void validateSounds(SoundManager manager) {
+        library.validateSounds(manager);
+    }
+
+    public record Recording(List<Runnable> acoustics) {
+        /**
+         * Plays the captured acoustics in the order they were requested.
+         */
+        public void play() {
+            acoustics.forEach(Runnable::run);
+        }
+    }
+}
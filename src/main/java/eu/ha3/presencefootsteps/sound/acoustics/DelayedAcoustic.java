@@ -1,10 +1,13 @@
 package eu.ha3.presencefootsteps.sound.acoustics;
 
+import java.util.function.Consumer;
+
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import eu.ha3.presencefootsteps.util.Period;
 import net.minecraft.entity.LivingEntity;
@@ -34,4 +37,9 @@ record DelayedAcoustic(
     public void playSound(SoundPlayer player, LivingEntity location, State event, Options inputOptions) {
         acoustic.playSound(player, location, event, inputOptions.and(delay));
     }
-}
\ No newline at end of file
+
+    @Override
+    public void forEachSound(Consumer<PreparedSound> consumer) {
+        acoustic.forEachSound(consumer);
+    }
+}
@@ -2,12 +2,14 @@ package eu.ha3.presencefootsteps.sound.acoustics;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.util.StringIdentifiable;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -75,4 +77,9 @@ record EventSelectorAcoustics(Map<State, Acoustic> pairs) implements Acoustic {
             // the possibility of a resonance cascade scenario is extremely unlikely
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void forEachSound(Consumer<PreparedSound> consumer) {
+        pairs.values().forEach(acoustic -> acoustic.forEachSound(consumer));
+    }
+}
@@ -2,10 +2,12 @@ package eu.ha3.presencefootsteps.sound.acoustics;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import net.minecraft.entity.LivingEntity;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
@@ -40,4 +42,9 @@ record SimultaneousAcoustic(List<Acoustic> acoustics) implements Acoustic {
     public void playSound(SoundPlayer player, LivingEntity location, State event, Options inputOptions) {
         acoustics.forEach(acoustic -> acoustic.playSound(player, location, event, inputOptions));
     }
-}
\ No newline at end of file
+
+    @Override
+    public void forEachSound(Consumer<PreparedSound> consumer) {
+        acoustics.forEach(acoustic -> acoustic.forEachSound(consumer));
+    }
+}
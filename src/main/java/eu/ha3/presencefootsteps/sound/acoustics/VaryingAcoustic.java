@@ -1,13 +1,15 @@
 package eu.ha3.presencefootsteps.sound.acoustics;
 
+import java.util.function.Consumer;
+
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import eu.ha3.presencefootsteps.util.Range;
 import net.minecraft.entity.LivingEntity;
@@ -18,12 +20,12 @@ import net.minecraft.entity.LivingEntity;
  * @author Hurry
  */
 record VaryingAcoustic(
-        String soundName,
+        PreparedSound sound,
         Range volume,
         Range pitch
 ) implements Acoustic {
     public static final MapCodec<VaryingAcoustic> CODEC = RecordCodecBuilder.mapCodec(i -> i.group(
-            Codec.STRING.fieldOf("name").forGetter(VaryingAcoustic::soundName),
+            PreparedSound.CODEC.fieldOf("name").forGetter(VaryingAcoustic::sound),
             Range.CODEC.fieldOf("volume").forGetter(VaryingAcoustic::volume),
             Range.CODEC.fieldOf("pitch").forGetter(VaryingAcoustic::pitch)
     ).apply(i, VaryingAcoustic::new));
@@ -32,7 +34,7 @@ record VaryingAcoustic(
     static final Serializer FACTORY = (json, context) -> {
         if (json.isJsonPrimitive()) {
             return new VaryingAcoustic(
-                context.getSoundName(json.getAsString()),
+                PreparedSound.of(context.getSoundName(json.getAsString())),
                 context.defaultVolume(),
                 context.defaultPitch()
             );
@@ -46,7 +48,7 @@ record VaryingAcoustic(
             throw new JsonParseException("Acoustic is missing a name");
         }
         return new VaryingAcoustic(
-                context.getSoundName(name),
+                PreparedSound.of(context.getSoundName(name)),
                 context.defaultVolume().read("volume", jso),
                 context.defaultPitch().read("pitch", jso)
         );
@@ -59,7 +61,7 @@ record VaryingAcoustic(
 
     @Override
     public void playSound(SoundPlayer player, LivingEntity location, State event, Options inputOptions) {
-        if (soundName.isEmpty()) {
+        if (sound.isEmpty()) {
             // Special case for intentionally empty sounds (as opposed to fall back sounds)
             return;
         }
@@ -72,6 +74,11 @@ record VaryingAcoustic(
                 ? pitch.on(inputOptions.get("gliding_pitch"))
                 : pitch.random(player.getRNG());
 
-        player.playSound(location, soundName, finalVolume, finalPitch, inputOptions);
+        player.playSound(location, sound, finalVolume, finalPitch, inputOptions);
+    }
+
+    @Override
+    public void forEachSound(Consumer<PreparedSound> consumer) {
+        consumer.accept(sound);
     }
 }
\ No newline at end of file
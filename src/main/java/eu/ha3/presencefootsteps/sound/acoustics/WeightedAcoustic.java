@@ -10,12 +10,14 @@ import com.mojang.serialization.codecs.RecordCodecBuilder;
 
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.State;
+import eu.ha3.presencefootsteps.sound.player.PreparedSound;
 import eu.ha3.presencefootsteps.sound.player.SoundPlayer;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.minecraft.entity.LivingEntity;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  *
@@ -82,6 +84,11 @@ record WeightedAcoustic(
         }
     }
 
+    @Override
+    public void forEachSound(Consumer<PreparedSound> consumer) {
+        entries.forEach(entry -> entry.acoustic.forEachSound(consumer));
+    }
+
     private static class Entry {
         public static final Codec<Entry> CODEC = RecordCodecBuilder.create(i -> i.group(
                 Codec.INT.optionalFieldOf("weight", 1)
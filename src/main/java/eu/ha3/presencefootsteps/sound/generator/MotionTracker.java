@@ -57,8 +57,10 @@ public class MotionTracker {
     /**
      * Fills in the blanks that aren't present on the client when playing on a
      * remote server.
+     *
+     * @param ticks The number of ticks since motion was last simulated. Motion is averaged over them.
      */
-    public void simulateMotionData(LivingEntity ply) {
+    public void simulateMotionData(LivingEntity ply, int ticks) {
         if (PlayerUtil.isClientPlayer(ply)) {
             motionX = ply.getVelocity().x;
             motionY = ply.getVelocity().y;
@@ -68,9 +70,9 @@ public class MotionTracker {
         } else {
             // Other players don't send their motion data so we have to make our own
             // approximations.
-            motionX = (ply.getX() - lastX);
+            motionX = (ply.getX() - lastX) / ticks;
             lastX = ply.getX();
-            motionY = (ply.getY() - lastY);
+            motionY = (ply.getY() - lastY) / ticks;
 
             if (ply.isOnGround()) {
                 motionY += 0.0784000015258789d;
@@ -78,7 +80,7 @@ public class MotionTracker {
 
             lastY = ply.getY();
 
-            motionZ = (ply.getZ() - lastZ);
+            motionZ = (ply.getZ() - lastZ) / ticks;
             lastZ = ply.getZ();
         }
 
@@ -86,21 +88,21 @@ public class MotionTracker {
             if (ply.getEntityWorld().getTime() % 1 == 0) {
 
                 if (motionX != 0 || motionZ != 0) {
-                    distanceTraveled += Math.sqrt(Math.pow(motionX, 2) + Math.pow(motionY, 2) + Math.pow(motionZ, 2)) * 0.8;
+                    distanceTraveled += Math.sqrt(Math.pow(motionX, 2) + Math.pow(motionY, 2) + Math.pow(motionZ, 2)) * 0.8 * ticks;
                 } else {
-                    distanceTraveled += Math.sqrt(Math.pow(motionX, 2) + Math.pow(motionZ, 2)) * 0.8;
+                    distanceTraveled += Math.sqrt(Math.pow(motionX, 2) + Math.pow(motionZ, 2)) * 0.8 * ticks;
                 }
 
                 if (ply.isOnGround() || ply.hasVehicle() || other.getAbilities().flying || motionY > 0) {
                     fallDistance = 0;
                 } else if (motionY < 0) {
-                    fallDistance -= motionY;
+                    fallDistance -= motionY * ticks;
                 }
             }
         }
 
         if (!(ply instanceof PlayerEntity)) {
-            distanceTraveled += (float)Math.sqrt(getHorizontalSpeed()) * 0.6f;
+            distanceTraveled += (float)Math.sqrt(getHorizontalSpeed()) * 0.6f * ticks;
         }
     }
 
@@ -1,5 +1,8 @@
 package eu.ha3.presencefootsteps.sound.generator;
 
+import eu.ha3.presencefootsteps.sound.LevelOfDetail;
+import eu.ha3.presencefootsteps.sound.VolumeProfile;
+
 /**
  * Has the ability to generate footsteps based on a Player.
  *
@@ -11,13 +14,26 @@ public interface StepSoundGenerator {
 
     float getLocalVolume(float tickDelta);
 
+    /**
+     * Gets the volume settings that apply to this entity, as of the current tick.
+     */
+    VolumeProfile getVolumeProfile();
+
     /**
      * Gets the motion tracker used to determine the direction and speed for an entity during simulation.
      */
     MotionTracker getMotionTracker();
 
+    /**
+     * Sets the number of entities this generator is producing footsteps for.
+     * Anything more than one will step more often and more loudly to represent the whole group.
+     */
+    default void setCrowdSize(int size) { }
+
     /**
      * Generate footsteps sounds of the Entity.
+     *
+     * @param detail How much of the footstep model to simulate.
      */
-    void generateFootsteps();
+    void generateFootsteps(LevelOfDetail detail);
 }
@@ -1,5 +1,7 @@
 package eu.ha3.presencefootsteps.sound.generator;
 
+import java.util.Random;
+
 import net.minecraft.client.network.OtherClientPlayerEntity;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.EquippableComponent;
@@ -9,16 +11,20 @@ import net.minecraft.entity.passive.AbstractHorseEntity;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.tag.FluidTags;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import org.jetbrains.annotations.Nullable;
 import com.google.common.base.MoreObjects;
 
 import eu.ha3.presencefootsteps.config.Variator;
 import eu.ha3.presencefootsteps.mixins.ILivingEntity;
+import eu.ha3.presencefootsteps.sound.LevelOfDetail;
 import eu.ha3.presencefootsteps.sound.State;
 import eu.ha3.presencefootsteps.util.Lerp;
 import eu.ha3.presencefootsteps.util.PlayerUtil;
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.SoundEngine;
+import eu.ha3.presencefootsteps.sound.VolumeProfile;
+import eu.ha3.presencefootsteps.sound.player.FrameSyncedSoundPlayer;
 import eu.ha3.presencefootsteps.world.Association;
 import eu.ha3.presencefootsteps.world.AssociationPool;
 import eu.ha3.presencefootsteps.world.BiomeVarianceLookup;
@@ -27,8 +33,20 @@ import eu.ha3.presencefootsteps.world.SoundsKey;
 import eu.ha3.presencefootsteps.world.Substrates;
 
 class TerrestrialStepSoundGenerator implements StepSoundGenerator {
+    /**
+     * The most ticks of motion that will be caught up on at once after skipping simulation.
+     */
+    private static final int MAX_SIMULATED_TICKS = 20;
+
+    /**
+     * The most a crowd may increase the step rate and volume by.
+     */
+    private static final float MAX_CROWD_RATE = 3;
+    private static final float MAX_CROWD_VOLUME = 1.5F;
+
     // Footsteps
     protected float dmwBase;
+    private float lastDistanceReference;
     protected float dwmYChange;
     protected double yPosition;
 
@@ -55,11 +73,25 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
     private boolean isMessyFoliage;
     private long brushesTime;
 
+    private long lastSimulationTime;
+
+    private int simulatedTicks = 1;
+    private float stepOnset;
+
+    private float crowdRate = 1;
+    private float crowdVolume = 1;
+
     protected final LivingEntity entity;
     protected final SoundEngine engine;
     private final Modifier<TerrestrialStepSoundGenerator> modifier;
     protected final MotionTracker motionTracker = new MotionTracker(this);
     protected final AssociationPool associations;
+    /**
+     * Seeded from the entity, so an entity makes the same choices no matter which thread simulates it.
+     */
+    protected final Random random;
+
+    private final VolumeProfile volumeProfile = new VolumeProfile();
 
     private final Lerp biomePitch = new Lerp();
     private final Lerp biomeVolume = new Lerp();
@@ -69,6 +101,7 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
         this.engine = engine;
         this.modifier = modifier;
         this.associations = new AssociationPool(entity, engine);
+        this.random = new Random(entity.getId());
     }
 
     @Override
@@ -78,7 +111,25 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
 
     @Override
     public float getLocalVolume(float tickDelta) {
-        return biomeVolume.get(tickDelta);
+        return biomeVolume.get(tickDelta) * crowdVolume;
+    }
+
+    @Override
+    public void setCrowdSize(int size) {
+        crowdRate = Math.min(MAX_CROWD_RATE, (float)Math.sqrt(size));
+        crowdVolume = Math.min(MAX_CROWD_VOLUME, (float)Math.sqrt(crowdRate));
+    }
+
+    @Override
+    public VolumeProfile getVolumeProfile() {
+        return volumeProfile.update(entity, engine.getConfig(), motionTracker);
+    }
+
+    /**
+     * Gets the options for the sounds of a step, including when during the tick they should start.
+     */
+    protected Options getStepOptions() {
+        return stepOnset > 0 ? getVolumeProfile().and(Options.singular(FrameSyncedSoundPlayer.KEY, stepOnset)) : getVolumeProfile();
     }
 
     @Override
@@ -87,7 +138,15 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
     }
 
     @Override
-    public void generateFootsteps() {
+    public void generateFootsteps(LevelOfDetail detail) {
+        final long time = entity.getEntityWorld().getTime();
+        if (!detail.shouldSimulate(time, entity.getId())) {
+            return;
+        }
+        final int ticks = (int)Math.max(1, Math.min(MAX_SIMULATED_TICKS, time - lastSimulationTime));
+        lastSimulationTime = time;
+        simulatedTicks = ticks;
+
         BiomeVarianceLookup.BiomeVariance variance = entity.getEntityWorld().getBiome(entity.getBlockPos()).getKey().map(RegistryKey::getValue).map(key -> {
             return engine.getIsolator().biomes().lookup(key);
         }).orElse(BiomeVarianceLookup.BiomeVariance.DEFAULT);
@@ -95,11 +154,22 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
         biomePitch.update(variance.pitch(), 0.01F);
         biomeVolume.update(variance.volume(), 0.01F);
 
-        motionTracker.simulateMotionData(entity);
-        simulateFootsteps();
-        simulateAirborne();
-        simulateBrushes();
-        simulateStationary();
+        motionTracker.simulateMotionData(entity, ticks);
+        if (!detail.isAudible()) {
+            // keep up with the entity's motion so it doesn't take a step the moment it becomes audible
+            dmwBase = motionTracker.getDistanceTraveled();
+            lastDistanceReference = dmwBase;
+            lastFallDistance = motionTracker.getFallDistance();
+            return;
+        }
+        simulateFootsteps(detail);
+        if (detail.hasAirborneSounds()) {
+            simulateAirborne();
+        }
+        if (detail.hasIncidentalSounds()) {
+            simulateBrushes();
+            simulateStationary();
+        }
         lastFallDistance = motionTracker.getFallDistance();
     }
 
@@ -114,12 +184,12 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
     }
 
     protected boolean playbackImmobile() {
-        long now = System.currentTimeMillis();
+        long now = engine.getFrameTime();
         Variator variator = engine.getIsolator().variator();
         if (now - immobilePlayback > immobileInterval) {
             immobilePlayback = now;
             immobileInterval = (int) Math.floor(
-                    (Math.random() * (variator.IMOBILE_INTERVAL_MAX - variator.IMOBILE_INTERVAL_MIN)) + variator.IMOBILE_INTERVAL_MIN);
+                    (random.nextDouble() * (variator.IMOBILE_INTERVAL_MAX - variator.IMOBILE_INTERVAL_MIN)) + variator.IMOBILE_INTERVAL_MIN);
             return true;
         }
         return false;
@@ -129,17 +199,17 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
         float diff = lastReference - reference;
         lastReference = reference;
         if (!isImmobile && diff == 0f) {
-            timeImmobile = System.currentTimeMillis();
+            timeImmobile = engine.getFrameTime();
             isImmobile = true;
         } else if (isImmobile && diff != 0f) {
             isImmobile = false;
-            return System.currentTimeMillis() - timeImmobile > engine.getIsolator().variator().IMMOBILE_DURATION;
+            return engine.getFrameTime() - timeImmobile > engine.getIsolator().variator().IMMOBILE_DURATION;
         }
 
         return false;
     }
 
-    protected void simulateFootsteps() {
+    protected void simulateFootsteps(LevelOfDetail detail) {
         final float distanceReference = motionTracker.getDistanceTraveled();
 
         stepThisFrame = false;
@@ -156,13 +226,16 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
         if (scalStat != scal < 0.001f) {
             scalStat = !scalStat;
 
-            if (scalStat && engine.getIsolator().variator().PLAY_WANDER && !hasStoppingConditions()) {
+            if (scalStat && detail.hasIncidentalSounds() && engine.getIsolator().variator().PLAY_WANDER && !hasStoppingConditions()) {
                 playStep(associations.findAssociation(0, isRightFoot), State.WANDER);
             }
         }
         xMovec = movX;
         zMovec = movZ;
 
+        final float stride = (distanceReference - lastDistanceReference) / simulatedTicks;
+        lastDistanceReference = distanceReference;
+
         float dwm = distanceReference - dmwBase;
         boolean immobile = updateImmobileState(distanceReference);
         if (immobile && !entity.isClimbing()) {
@@ -208,10 +281,15 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
             // if the player is larger than normal, slow down footsteps further
 
             distance *= ((PlayerUtil.getScale(entity) - 1) * 0.6F) + 1;
+            distance /= crowdRate;
 
             if (dwm > distance) {
+                // the entity is drawn catching up to where it is now over the coming frames,
+                // so start the sound at the point it will be seen crossing the step distance
+                stepOnset = distance > 0 && stride > 0 ? MathHelper.clamp(1 - (dwm - distance) / stride, 0, 1) : 0;
                 produceStep(event, verticalOffsetAsMinus);
                 modifier.stepped(this, entity, event);
+                stepOnset = 0;
                 dmwBase = distanceReference;
             }
         }
@@ -239,7 +317,7 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
             engine.getIsolator().acoustics().playAcoustic(entity,
                     entity.isTouchingWater() ? SoundsKey.SWIM_WATER : SoundsKey.SWIM_LAVA,
                     (entity.isSubmergedInWater() || entity.isSubmergedIn(FluidTags.LAVA)) ? State.SWIM : event,
-                    Options.singular("gliding_volume", volume)
+                    getStepOptions().and(Options.singular("gliding_volume", volume))
                     .and(Options.singular("volume_scale", PlayerUtil.isClientPlayer(entity) ? 1 : 0.125F))
             );
             playStep(associations.findAssociation(entity.getBlockPos().down(), Solver.MESSY_FOLIAGE_STRATEGY), event);
@@ -322,11 +400,11 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
     }
 
     private void simulateBrushes() {
-        if (brushesTime > System.currentTimeMillis()) {
+        if (brushesTime > engine.getFrameTime()) {
             return;
         }
 
-        brushesTime = System.currentTimeMillis() + 100;
+        brushesTime = engine.getFrameTime() + 100;
 
         if (motionTracker.isStationary() || entity.isSneaking() || !entity.getEquippedStack(EquipmentSlot.FEET).isEmpty()) {
             return;
@@ -355,14 +433,14 @@ class TerrestrialStepSoundGenerator implements StepSoundGenerator {
             if (equipable != null) {
                 SoundsKey bootSound = engine.getIsolator().primitives().getAssociation(equipable.equipSound().value(), Substrates.DEFAULT);
                 if (bootSound.isEmitter()) {
-                    engine.getIsolator().acoustics().playStep(association, eventType, Options.singular("volume_percentage", 0.5F));
-                    engine.getIsolator().acoustics().playAcoustic(entity, bootSound, eventType, Options.EMPTY);
+                    engine.getIsolator().acoustics().playStep(entity, association, eventType, getStepOptions().and(Options.singular("volume_percentage", 0.5F)));
+                    engine.getIsolator().acoustics().playAcoustic(entity, bootSound, eventType, getStepOptions());
                     return;
                 }
             }
         }
 
-        engine.getIsolator().acoustics().playStep(association, eventType, Options.EMPTY);
+        engine.getIsolator().acoustics().playStep(entity, association, eventType, getStepOptions());
     }
 
     protected void playSinglefoot(double verticalOffsetAsMinus, State eventType, boolean foot) {
@@ -1,5 +1,6 @@
 package eu.ha3.presencefootsteps.sound.generator;
 
+import eu.ha3.presencefootsteps.sound.LevelOfDetail;
 import eu.ha3.presencefootsteps.sound.State;
 import eu.ha3.presencefootsteps.util.MathUtil;
 import eu.ha3.presencefootsteps.world.SoundsKey;
@@ -24,9 +25,9 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
     }
 
     @Override
-    public void generateFootsteps() {
+    public void generateFootsteps(LevelOfDetail detail) {
         lastTimeImmobile = timeImmobile;
-        super.generateFootsteps();
+        super.generateFootsteps(detail);
     }
 
     @Override
@@ -47,11 +48,11 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
             boolean stationary = vel.x != 0 && vel.z != 0;
             lastReference = reference;
             if (!isImmobile && stationary) {
-                timeImmobile = System.currentTimeMillis();
+                timeImmobile = engine.getFrameTime();
                 isImmobile = true;
             } else if (isImmobile && !stationary) {
                 isImmobile = false;
-                return System.currentTimeMillis() - timeImmobile > engine.getIsolator().variator().IMMOBILE_DURATION;
+                return engine.getFrameTime() - timeImmobile > engine.getIsolator().variator().IMMOBILE_DURATION;
             }
 
             return false;
@@ -79,7 +80,7 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
             return;
         }
 
-        final long now = System.currentTimeMillis();
+        final long now = engine.getFrameTime();
 
         float speed = (float) Math.sqrt(motionTracker.getHorizontalSpeed());
         Variator variator = engine.getIsolator().variator();
@@ -95,9 +96,9 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
             if (!isAirborne) {
                 float volume = speedingJumpStateChange ? 2
                         : MathUtil.scalex((float)lastFallDistance, variator.HUGEFALL_LANDING_DISTANCE_MIN, variator.HUGEFALL_LANDING_DISTANCE_MAX);
-                engine.getIsolator().acoustics().playAcoustic(entity, SWIFT, State.LAND, Options.singular("gliding_volume", volume));
+                engine.getIsolator().acoustics().playAcoustic(entity, SWIFT, State.LAND, getVolumeProfile().and(Options.singular("gliding_volume", volume)));
             } else {
-                engine.getIsolator().acoustics().playAcoustic(entity, SWIFT, State.JUMP, Options.EMPTY);
+                engine.getIsolator().acoustics().playAcoustic(entity, SWIFT, State.JUMP, getVolumeProfile());
             }
         }
 
@@ -109,7 +110,7 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
     }
 
     protected void simulateFlying() {
-        final long now = System.currentTimeMillis();
+        final long now = engine.getFrameTime();
         Variator variator = engine.getIsolator().variator();
 
         if (updateState(motionTracker.getHorizontalSpeed(), motionTracker.getMotionY(), entity.sidewaysSpeed)) {
@@ -117,8 +118,8 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
         }
 
         if (!entity.isSubmergedInWater() && !isFalling && now > nextFlapTime) {
-            nextFlapTime = now + getWingSpeed() + (entity.getEntityWorld().random.nextInt(100) - 50);
-            flapMod = (flapMod + 1) % (1 + entity.getEntityWorld().random.nextInt(4));
+            nextFlapTime = now + getWingSpeed() + (random.nextInt(100) - 50);
+            flapMod = (flapMod + 1) % (1 + random.nextInt(4));
 
             float volume = 1;
             long diffImmobile = now - lastTimeImmobile;
@@ -129,7 +130,7 @@ class WingedStepSoundGenerator extends TerrestrialStepSoundGenerator {
                         variator.WING_IMMOBILE_FADE_START + variator.WING_IMMOBILE_FADE_DURATION);
             }
 
-            engine.getIsolator().acoustics().playAcoustic(entity, WING, State.WALK, Options.singular("gliding_volume", volume));
+            engine.getIsolator().acoustics().playAcoustic(entity, WING, State.WALK, getVolumeProfile().and(Options.singular("gliding_volume", volume)));
         }
     }
 
@@ -1,14 +1,30 @@
 package eu.ha3.presencefootsteps.sound.player;
 
-import java.util.List;
+import java.util.Comparator;
+import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.UUID;
+
+import org.jetbrains.annotations.Nullable;
 
 import eu.ha3.presencefootsteps.PresenceFootsteps;
 import eu.ha3.presencefootsteps.sound.Options;
+import eu.ha3.presencefootsteps.sound.SoundEngine;
 import eu.ha3.presencefootsteps.util.MathUtil;
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
 import net.minecraft.entity.LivingEntity;
 
+/**
+ * Plays sounds after a random delay given by their options.
+ * <p>
+ * Pending sounds are kept in order of the earliest time they may be played,
+ * so each call to {@link #think()} only looks at the sounds that are due.
+ * <p>
+ * Sounds only remember which entity they belong to by id, and are dropped if that entity is gone by the time they are due.
+ * If more sounds are waiting than the configured limit allows, the oldest sound with a deadline is dropped to make room.
+ * If there are none of those, the oldest sound of all is dropped instead.
+ */
 public class DelayedSoundPlayer implements SoundPlayer {
     private static final boolean USING_LATENESS = true;
     private static final boolean USING_EARLYNESS = true;
@@ -17,15 +33,20 @@ public class DelayedSoundPlayer implements SoundPlayer {
 
     private static final double EARLYNESS_THRESHOLD_POW = 0.75D;
 
-    private final List<PendingSound> pending = new ObjectArrayList<>();
+    private final PriorityQueue<PendingSound> pending = new PriorityQueue<>(Comparator.comparingLong(PendingSound::earliestTime));
 
     private final SoundPlayer immediate;
+    private final SoundEngine engine;
+
+    private long nextSequence;
 
-    private long nextPlayTime;
-    private long currentTime;
+    private int shed;
+    private int cancelled;
+    private int late;
 
-    public DelayedSoundPlayer(SoundPlayer immediate) {
+    public DelayedSoundPlayer(SoundPlayer immediate, SoundEngine engine) {
         this.immediate = immediate;
+        this.engine = engine;
     }
 
     @Override
@@ -34,90 +55,146 @@ public class DelayedSoundPlayer implements SoundPlayer {
     }
 
     @Override
-    public void playSound(LivingEntity location, String soundName, float volume, float pitch, Options options) {
+    public void playSound(LivingEntity location, PreparedSound sound, float volume, float pitch, Options options) {
         if (!options.containsKey("delay_min") || !options.containsKey("delay_max")) {
-            immediate.playSound(location, soundName, volume, pitch, options);
+            immediate.playSound(location, sound, volume, pitch, options);
             return;
         }
-        pending.add(new PendingSound(location, soundName, volume, pitch, options));
+
+        long maximum = options.containsKey("skippable") ? -1L : (long)options.get("delay_max");
+        long timeToPlay = System.currentTimeMillis() + MathUtil.randAB(getRNG(),
+                (long)options.get("delay_min"),
+                (long)options.get("delay_max")
+        );
+        long earlyness = USING_EARLYNESS && maximum >= 0 ? (long)Math.pow(maximum, EARLYNESS_THRESHOLD_POW) : 0;
+        long lateness = USING_LATENESS && maximum >= 0 ? (long)(maximum / LATENESS_THRESHOLD) : Long.MAX_VALUE;
+
+        final int maxPending = engine.getConfig().getMaxPendingSounds();
+        if (maxPending > 0 && pending.size() >= maxPending) {
+            shed();
+        }
+
+        pending.add(new PendingSound(
+                location.getId(), location.getUuid(), nextSequence++,
+                sound, volume, pitch, options,
+                timeToPlay, timeToPlay - earlyness, lateness
+        ));
     }
 
+    /**
+     * Drops the oldest sound with a deadline, or the oldest of all if none have one.
+     * <p>
+     * Sounds with a deadline would be skipped anyway if they were held up for too long,
+     * so they are the first to go. Sounds without one must otherwise always play.
+     */
+    private void shed() {
+        @Nullable
+        PendingSound oldest = null;
+        @Nullable
+        PendingSound oldestWithDeadline = null;
+        for (PendingSound sound : pending) {
+            if (oldest == null || sound.sequence() < oldest.sequence()) {
+                oldest = sound;
+            }
+            if (sound.hasDeadline() && (oldestWithDeadline == null || sound.sequence() < oldestWithDeadline.sequence())) {
+                oldestWithDeadline = sound;
+            }
+        }
+        pending.remove(oldestWithDeadline != null ? oldestWithDeadline : oldest);
+        shed++;
+    }
+
+    @Override
     public void think() {
-        currentTime = System.currentTimeMillis();
+        immediate.think();
 
-        if (pending.isEmpty() || currentTime < nextPlayTime) {
+        if (pending.isEmpty()) {
             return;
         }
 
-        nextPlayTime = Long.MAX_VALUE;
+        @Nullable
+        ClientWorld world = MinecraftClient.getInstance().world;
+        long currentTime = System.currentTimeMillis();
 
-        pending.removeIf(PendingSound::tick);
-    }
+        while (!pending.isEmpty() && pending.peek().earliestTime() <= currentTime) {
+            PendingSound sound = pending.poll();
 
-    private class PendingSound {
-        private final LivingEntity location;
-
-        private final String soundName;
-        private final Options options;
-
-        private final float volume;
-        private final float pitch;
-
-        private final long timeToPlay;
-        private final long maximum;
-
-        public PendingSound(LivingEntity location, String soundName, float volume, float pitch, Options options) {
-            this.location = location;
-            this.soundName = soundName;
-            this.volume = volume;
-            this.pitch = pitch;
-            this.options = options;
-            maximum = options.containsKey("skippable") ? -1L : (long)options.get("delay_max");
-            timeToPlay = System.currentTimeMillis() + Math.max(MathUtil.randAB(getRNG(),
-                    (long)options.get("delay_min"),
-                    (long)options.get("delay_max")
-            ), nextPlayTime);
-        }
+            if (!(world != null && world.getEntityById(sound.entityId()) instanceof LivingEntity location
+                    && !location.isRemoved()
+                    && location.getUuid().equals(sound.entityUuid()))) {
+                cancelled++;
+                continue;
+            }
+
+            long lateness = currentTime - sound.timeToPlay();
 
-        public boolean tick() {
-            switch (nextState(currentTime)) {
-                case PLAYING:
-                    immediate.playSound(location, soundName, volume, pitch, options);
-                    return false;
-                case SKIPPING:
-                    return true;
-                default:
-                    nextPlayTime = timeToPlay;
-                    return false;
+            if (lateness < 0) {
+                PresenceFootsteps.logger.debug("Playing early sound (early by " + -lateness + "ms, tolerence is " + (sound.timeToPlay() - sound.earliestTime()) + "ms)");
             }
-        }
 
-        private State nextState(long time) {
-            if (time >= timeToPlay || USING_EARLYNESS && time >= timeToPlay - Math.pow(maximum, EARLYNESS_THRESHOLD_POW)) {
-                if (USING_EARLYNESS && time < timeToPlay) {
-                    PresenceFootsteps.logger.debug("Playing early sound (early by " + (timeToPlay - time) + "ms, tolerence is " + Math.pow(maximum, EARLYNESS_THRESHOLD_POW));
-                }
+            if (lateness <= sound.latenessTolerance()) {
+                immediate.playSound(location, sound.sound(), sound.volume(), sound.pitch(), sound.options());
+            } else {
+                PresenceFootsteps.logger.debug("Skipped late sound (late by " + lateness + "ms, tolerence is " + sound.latenessTolerance() + "ms)");
+                late++;
+            }
+        }
+    }
 
-                long lateness = time - timeToPlay;
+    /**
+     * Drops every pending sound.
+     */
+    public void clear() {
+        cancelled += pending.size();
+        pending.clear();
+    }
 
-                if (!USING_LATENESS
-                        || maximum < 0
-                        || lateness <= maximum / LATENESS_THRESHOLD) {
-                    return State.PLAYING;
-                }
+    /**
+     * The number of sounds waiting to be played.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
 
-                PresenceFootsteps.logger.debug("Skipped late sound (late by " + lateness + "ms, tolerence is " + maximum / LATENESS_THRESHOLD + "ms)");
+    /**
+     * The number of sounds dropped to stay within the limit since the game started.
+     */
+    public int getShedCount() {
+        return shed;
+    }
 
-                return State.SKIPPING;
-            }
+    /**
+     * The number of sounds dropped because their entity was gone since the game started.
+     */
+    public int getCancelledCount() {
+        return cancelled;
+    }
 
-            return State.PENDING;
-        }
+    /**
+     * The number of sounds skipped for being too late since the game started.
+     */
+    public int getLateCount() {
+        return late;
     }
 
-    enum State {
-        PENDING,
-        PLAYING,
-        SKIPPING
+    private record PendingSound(
+            int entityId,
+            UUID entityUuid,
+            long sequence,
+            PreparedSound sound,
+            float volume,
+            float pitch,
+            Options options,
+            long timeToPlay,
+            long earliestTime,
+            long latenessTolerance
+    ) {
+        /**
+         * Returns true if this sound is skipped when it runs too late.
+         * Sounds with the {@code skippable} option may be as late as they like, so they have no deadline.
+         */
+        boolean hasDeadline() {
+            return latenessTolerance != Long.MAX_VALUE;
+        }
     }
 }
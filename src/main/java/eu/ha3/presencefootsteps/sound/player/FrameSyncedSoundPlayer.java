@@ -0,0 +1,75 @@
+package eu.ha3.presencefootsteps.sound.player;
+
+import java.util.List;
+import java.util.Random;
+
+import eu.ha3.presencefootsteps.sound.Options;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.LivingEntity;
+
+/**
+ * Holds back sounds that should start part way through a tick until the render frame that reaches that point.
+ * <p>
+ * Entities are drawn between where they were on the previous tick and where they are now,
+ * so a step found on this tick is only seen landing some way into the frames that follow.
+ * Sounds carrying the {@value #KEY} option are played on the first frame at or after that point, or on the next tick, whichever comes first.
+ */
+public class FrameSyncedSoundPlayer implements SoundPlayer {
+    /**
+     * How far into the tick a sound should start, from 0 to 1.
+     */
+    public static final String KEY = "onset";
+
+    private final List<PendingSound> pending = new ObjectArrayList<>();
+
+    private final SoundPlayer immediate;
+
+    public FrameSyncedSoundPlayer(SoundPlayer immediate) {
+        this.immediate = immediate;
+    }
+
+    @Override
+    public Random getRNG() {
+        return immediate.getRNG();
+    }
+
+    @Override
+    public void playSound(LivingEntity location, PreparedSound sound, float volume, float pitch, Options options) {
+        float onset = options.getOrDefault(KEY, 0);
+        if (onset <= getTickProgress()) {
+            immediate.playSound(location, sound, volume, pitch, options);
+            return;
+        }
+        pending.add(new PendingSound(location.getEntityWorld().getTime(), onset, location, sound, volume, pitch, options));
+    }
+
+    @Override
+    public void think() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        float progress = getTickProgress();
+        pending.removeIf(queued -> {
+            if (queued.location().isRemoved()) {
+                return true;
+            }
+            if (queued.isDue(progress)) {
+                immediate.playSound(queued.location(), queued.sound(), queued.volume(), queued.pitch(), queued.options());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static float getTickProgress() {
+        return MinecraftClient.getInstance().getRenderTickCounter().getTickProgress(false);
+    }
+
+    private record PendingSound(long time, float onset,
+            LivingEntity location, PreparedSound sound, float volume, float pitch, Options options) {
+        boolean isDue(float progress) {
+            return progress >= onset || location.getEntityWorld().getTime() != time;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import eu.ha3.presencefootsteps.util.PlayerUtil;
 import eu.ha3.presencefootsteps.sound.Options;
 import eu.ha3.presencefootsteps.sound.SoundEngine;
 import eu.ha3.presencefootsteps.sound.StepSoundSource;
+import eu.ha3.presencefootsteps.sound.VolumeProfile;
 import eu.ha3.presencefootsteps.sound.generator.StepSoundGenerator;
 
 /**
@@ -21,6 +22,7 @@ import eu.ha3.presencefootsteps.sound.generator.StepSoundGenerator;
  */
 public final class ImmediateSoundPlayer implements SoundPlayer {
     private final Random random = new Random();
+    private final VoiceLimiter voices = new VoiceLimiter();
     private final SoundEngine engine;
 
     public ImmediateSoundPlayer(SoundEngine engine) {
@@ -32,15 +34,25 @@ public final class ImmediateSoundPlayer implements SoundPlayer {
         return random;
     }
 
+    public VoiceLimiter getVoiceLimiter() {
+        return voices;
+    }
+
     @Override
-    public void playSound(LivingEntity location, String soundName, float volume, float pitch, Options options) {
+    public void playSound(LivingEntity location, PreparedSound sound, float volume, float pitch, Options options) {
+        Identifier id = sound.getId(location);
+        if (id == null) {
+            return;
+        }
+
         volume *= options.getOrDefault("volume_percentage", 1F);
         pitch *= options.getOrDefault("pitch_percentage", 1F);
 
         MinecraftClient mc = MinecraftClient.getInstance();
         double distance = mc.gameRenderer.getCamera().getCameraPos().squaredDistanceTo(location.getEntityPos());
 
-        volume *= engine.getVolumeForSource(location);
+        VolumeProfile profile = engine.getVolumeProfile(location);
+        volume *= options.containsKey(VolumeProfile.KEY) ? options.get(VolumeProfile.KEY) : profile.getVolume();
         pitch /= ((PlayerUtil.getScale(location) - 1) * 0.6F) + 1;
 
         StepSoundGenerator generator = ((StepSoundSource) location).getStepGenerator(engine).orElse(null);
@@ -50,18 +62,15 @@ public final class ImmediateSoundPlayer implements SoundPlayer {
             pitch *= generator.getLocalPitch(tickDelta);
         }
 
-        PositionedSoundInstance sound = new UncappedSoundInstance(soundName, volume, pitch, location);
+        PositionedSoundInstance instance = new UncappedSoundInstance(id, volume, pitch, location);
 
-        if (distance > 100) {
-            mc.getSoundManager().play(sound, (int) Math.floor(Math.sqrt(distance) / 2));
-        } else {
-            mc.getSoundManager().play(sound);
-        }
+        int delay = distance > 100 ? (int) Math.floor(Math.sqrt(distance) / 2) : 0;
+        voices.play(mc.getSoundManager(), instance, delay, profile.getPriority(volume, distance), engine.getConfig().getMaxVoices());
     }
 
     public static class UncappedSoundInstance extends PositionedSoundInstance {
-        public UncappedSoundInstance(String soundName, float volume, float pitch, Entity entity) {
-            super(getSoundId(soundName, entity),
+        public UncappedSoundInstance(Identifier id, float volume, float pitch, Entity entity) {
+            super(id,
                     entity.getSoundCategory(),
                     volume, pitch, SoundInstance.createRandom(), false, 0,
                     SoundInstance.AttenuationType.LINEAR,
@@ -74,19 +83,5 @@ public final class ImmediateSoundPlayer implements SoundPlayer {
         public float getMaxVolume() {
             return 3;
         }
-
-        private static Identifier getSoundId(String name, Entity location) {
-            if (name.indexOf(':') >= 0) {
-                return Identifier.of(name);
-            }
-
-            String domain = "presencefootsteps";
-
-            if (!PlayerUtil.isClientPlayer(location)) {
-                domain += "mono"; // Switch to mono if playing another player
-            }
-
-            return Identifier.of(domain, name);
-        }
     }
 }
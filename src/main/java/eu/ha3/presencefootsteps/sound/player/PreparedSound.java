@@ -0,0 +1,63 @@
+package eu.ha3.presencefootsteps.sound.player;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.mojang.serialization.Codec;
+
+import eu.ha3.presencefootsteps.util.PlayerUtil;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.Identifier;
+
+/**
+ * A sound name along with the identifiers it plays as, worked out once when it is loaded.
+ * <p>
+ * Names without a namespace refer to the mod's own sounds. These come in a stereo version for the client player,
+ * and a mono version for everyone else so they can be heard coming from the right direction.
+ * Names with a namespace play the same sound for everyone.
+ *
+ * @param stereo The sound played for the client player, or null if the name is not a valid identifier.
+ * @param mono   The sound played for everyone else, or null if the name is not a valid identifier.
+ */
+public record PreparedSound(String name, @Nullable Identifier stereo, @Nullable Identifier mono) {
+    public static final Codec<PreparedSound> CODEC = Codec.STRING.xmap(PreparedSound::of, PreparedSound::name);
+
+    private static final String DOMAIN = "presencefootsteps";
+    private static final String MONO_DOMAIN = DOMAIN + "mono";
+
+    public static PreparedSound of(String name) {
+        if (name.isEmpty()) {
+            return new PreparedSound(name, null, null);
+        }
+        if (name.indexOf(':') >= 0) {
+            Identifier id = Identifier.tryParse(name);
+            return new PreparedSound(name, id, id);
+        }
+        return new PreparedSound(name, Identifier.tryParse(DOMAIN + ":" + name), Identifier.tryParse(MONO_DOMAIN + ":" + name));
+    }
+
+    public static PreparedSound of(Identifier id) {
+        return new PreparedSound(id.toString(), id, id);
+    }
+
+    /**
+     * Returns true for sounds that are intentionally left empty.
+     */
+    public boolean isEmpty() {
+        return name.isEmpty();
+    }
+
+    /**
+     * Returns true if this sound has an identifier to play for every entity.
+     */
+    public boolean isValid() {
+        return stereo != null && mono != null;
+    }
+
+    /**
+     * Gets the identifier to play when this sound comes from the given entity.
+     */
+    @Nullable
+    public Identifier getId(Entity location) {
+        return PlayerUtil.isClientPlayer(location) ? stereo : mono;
+    }
+}
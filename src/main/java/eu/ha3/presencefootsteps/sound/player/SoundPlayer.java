@@ -9,7 +9,7 @@ public interface SoundPlayer {
     /**
      * Plays a sound.
      */
-    void playSound(LivingEntity location, String soundName, float volume, float pitch, Options options);
+    void playSound(LivingEntity location, PreparedSound sound, float volume, float pitch, Options options);
 
     /**
      * Returns a random number generator.
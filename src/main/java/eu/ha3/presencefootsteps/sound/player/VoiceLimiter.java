@@ -0,0 +1,111 @@
+package eu.ha3.presencefootsteps.sound.player;
+
+import java.util.List;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.client.sound.SoundInstance;
+import net.minecraft.client.sound.SoundManager;
+
+/**
+ * Keeps the number of footstep sounds playing at once within a budget, so they don't take every channel
+ * from the sound system and leave none for the rest of the game.
+ * <p>
+ * When the budget is full, a new sound replaces the least important one playing, or is dropped if nothing playing is less important.
+ * Sounds still waiting to start can't be stopped by the sound system, so they are never replaced.
+ */
+public class VoiceLimiter {
+    /**
+     * How long a sound is counted as playing for after it was due to start, in case the sound system hasn't picked it up yet.
+     */
+    private static final long START_GRACE_MS = 100;
+    private static final long TICK_MS = 50;
+
+    private final List<Voice> voices = new ObjectArrayList<>();
+
+    private int played;
+    private int stolen;
+    private int rejected;
+
+    /**
+     * Plays a sound if there is room for it.
+     *
+     * @param delay     The number of ticks to wait before starting the sound.
+     * @param priority  How important the sound is. Higher values win.
+     * @param maxVoices The most sounds that may be playing at once. Zero or less means no limit.
+     *
+     * @return True if the sound was played.
+     */
+    public boolean play(SoundManager manager, SoundInstance sound, int delay, float priority, int maxVoices) {
+        if (maxVoices > 0) {
+            long now = System.currentTimeMillis();
+            prune(manager, now);
+
+            if (voices.size() >= maxVoices) {
+                int lowest = -1;
+                for (int i = 0; i < voices.size(); i++) {
+                    Voice voice = voices.get(i);
+                    if (voice.startsAt() <= now && (lowest == -1 || voice.priority() < voices.get(lowest).priority())) {
+                        lowest = i;
+                    }
+                }
+
+                if (lowest == -1 || voices.get(lowest).priority() >= priority) {
+                    rejected++;
+                    return false;
+                }
+
+                manager.stop(voices.get(lowest).sound());
+                voices.set(lowest, voices.get(voices.size() - 1));
+                voices.remove(voices.size() - 1);
+                stolen++;
+            }
+
+            // delayed sounds are started by the sound system's own tick, which may come up to a tick late
+            voices.add(new Voice(sound, priority, delay > 0 ? now + (delay + 1) * TICK_MS : now));
+        } else {
+            voices.clear();
+        }
+
+        if (delay > 0) {
+            manager.play(sound, delay);
+        } else {
+            manager.play(sound);
+        }
+        played++;
+        return true;
+    }
+
+    private void prune(SoundManager manager, long now) {
+        voices.removeIf(voice -> now > voice.startsAt() + START_GRACE_MS && !manager.isPlaying(voice.sound()));
+    }
+
+    /**
+     * The number of sounds being tracked as playing.
+     */
+    public int getActiveCount() {
+        return voices.size();
+    }
+
+    /**
+     * The number of sounds played since the game started.
+     */
+    public int getPlayedCount() {
+        return played;
+    }
+
+    /**
+     * The number of sounds cut short to make room for more important ones since the game started.
+     */
+    public int getStolenCount() {
+        return stolen;
+    }
+
+    /**
+     * The number of sounds not played for lack of room since the game started.
+     */
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    private record Voice(SoundInstance sound, float priority, long startsAt) {}
+}
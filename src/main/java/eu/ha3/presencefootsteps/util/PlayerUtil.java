@@ -9,12 +9,11 @@ import net.minecraft.util.math.MathHelper;
 
 public interface PlayerUtil {
     static boolean isClientPlayer(Entity entity) {
+        if (!(entity instanceof PlayerEntity) || entity instanceof OtherClientPlayerEntity) {
+            return false;
+        }
         PlayerEntity client = MinecraftClient.getInstance().player;
-
-        return entity instanceof PlayerEntity
-                && !(entity instanceof OtherClientPlayerEntity)
-                && client != null
-                && (client == entity || client.getUuid().equals(entity.getUuid()));
+        return client != null && (client == entity || client.getUuid().equals(entity.getUuid()));
     }
 
     static float getScale(LivingEntity entity) {
@@ -28,6 +28,10 @@ abstract class AbstractSubstrateLookup<T> implements Lookup.DataSegment<T> {
 
     protected abstract Identifier getId(T key);
 
+    Map<String, Map<Identifier, Optional<SoundsKey>>> getSubstrateMaps() {
+        return substrates;
+    }
+
     @Override
     public Optional<SoundsKey> getAssociation(@Nullable T key, String substrate) {
         if (key == null) {
@@ -0,0 +1,180 @@
+package eu.ha3.presencefootsteps.world;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Remembers solved foot associations across ticks, keyed by the foot position and the blockmap they were solved against.
+ * <p>
+ * Only results that any entity stepping on the same block would have gotten are stored.
+ * Solves that probed around the edges of the entity, tested its collision against anything but a full block,
+ * or saw blocks carried by a contraption are left out.
+ * <p>
+ * Entries are evicted when a block near them changes, when their chunk is (re)loaded or unloaded,
+ * and when the weather changes. Whilst it is raining wetness depends on the sky above each block,
+ * so entries only live for the tick they were solved in.
+ * <p>
+ * The cache belongs to the thread that created it, and only that thread changes it.
+ * Other threads may read from it whilst feet are being solved in parallel, since the owning thread is waiting on them
+ * and won't change it until they are done. Results they solve are queued, and the owning thread adds them
+ * the next time it touches the cache.
+ */
+final class AssociationCache {
+    /**
+     * Variants separate entries whose solving depends on the stepping entity.
+     * Sprinting widens the collider, and foliage is only found for bare feet or when sprinting.
+     */
+    static final int VARIANT_SHOD = 0;
+    static final int VARIANT_BARE = 1;
+    static final int VARIANT_SPRINTING = 2;
+    private static final int VARIANTS = 3;
+
+    /**
+     * How far from a foot position the solver may look for blocks.
+     */
+    private static final int HORIZONTAL_REACH = 2;
+    private static final int VERTICAL_REACH = 1;
+
+    private static final int MAX_SIZE = 8192;
+
+    private final Map<Lookup<BlockState>, Long2ObjectOpenHashMap<Association>[]> entries = new Reference2ObjectOpenHashMap<>();
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Thread owner = Thread.currentThread();
+    private int size;
+
+    @Nullable
+    private World world;
+    private boolean raining;
+    private long time;
+
+    /**
+     * Discards everything if the world or weather has changed since the last update.
+     * Must be called from the owning thread before any feet are solved for a new tick.
+     */
+    public void update(World world) {
+        boolean raining = world.isRaining();
+        long time = world.getTime();
+        if (world != this.world || raining != this.raining || (raining && time != this.time)) {
+            clear();
+            this.world = world;
+            this.raining = raining;
+        } else {
+            drain();
+        }
+        this.time = time;
+    }
+
+    @Nullable
+    public Association get(Lookup<BlockState> lookup, int variant, long pos) {
+        Long2ObjectOpenHashMap<Association>[] maps = entries.get(lookup);
+        return maps == null ? null : maps[variant].get(pos);
+    }
+
+    public void put(Lookup<BlockState> lookup, int variant, long pos, Association association) {
+        if (Thread.currentThread() == owner) {
+            add(lookup, variant, pos, association);
+        } else {
+            pending.add(new Entry(lookup, variant, pos, association));
+        }
+    }
+
+    /**
+     * Adds the results solved on other threads since the owning thread last touched the cache.
+     */
+    private void drain() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            add(entry.lookup(), entry.variant(), entry.pos(), entry.association());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Lookup<BlockState> lookup, int variant, long pos, Association association) {
+        if (size >= MAX_SIZE) {
+            entries.clear();
+            size = 0;
+        }
+        if (entries.computeIfAbsent(lookup, l -> {
+            Long2ObjectOpenHashMap<Association>[] maps = new Long2ObjectOpenHashMap[VARIANTS];
+            for (int i = 0; i < maps.length; i++) {
+                maps[i] = new Long2ObjectOpenHashMap<>();
+            }
+            return maps;
+        })[variant].put(pos, association) == null) {
+            size++;
+        }
+    }
+
+    /**
+     * Evicts every entry whose solving could have looked at the given block.
+     */
+    public void invalidate(BlockPos pos) {
+        drain();
+        if (size == 0) {
+            return;
+        }
+        for (var maps : entries.values()) {
+            for (var map : maps) {
+                if (map.isEmpty()) {
+                    continue;
+                }
+                for (int x = -HORIZONTAL_REACH; x <= HORIZONTAL_REACH; x++) {
+                    for (int z = -HORIZONTAL_REACH; z <= HORIZONTAL_REACH; z++) {
+                        for (int y = -VERTICAL_REACH; y <= VERTICAL_REACH; y++) {
+                            if (map.remove(BlockPos.asLong(pos.getX() + x, pos.getY() + y, pos.getZ() + z)) != null) {
+                                size--;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts every entry whose solving could have looked at blocks in the given chunk.
+     */
+    public void invalidate(ChunkPos chunk) {
+        drain();
+        if (size == 0) {
+            return;
+        }
+        final int minX = chunk.getStartX() - HORIZONTAL_REACH;
+        final int maxX = chunk.getEndX() + HORIZONTAL_REACH;
+        final int minZ = chunk.getStartZ() - HORIZONTAL_REACH;
+        final int maxZ = chunk.getEndZ() + HORIZONTAL_REACH;
+        for (var maps : entries.values()) {
+            for (var map : maps) {
+                LongIterator iter = map.keySet().iterator();
+                while (iter.hasNext()) {
+                    long pos = iter.nextLong();
+                    int x = BlockPos.unpackLongX(pos);
+                    int z = BlockPos.unpackLongZ(pos);
+                    if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                        iter.remove();
+                        size--;
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        pending.clear();
+        entries.clear();
+        size = 0;
+    }
+
+    private record Entry(Lookup<BlockState> lookup, int variant, long pos, Association association) { }
+}
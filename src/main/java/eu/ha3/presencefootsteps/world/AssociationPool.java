@@ -23,7 +23,16 @@ public final class AssociationPool {
 
     private final Solver solver;
 
+    /**
+     * Scratch state reused by the solver so solving for this entity does not allocate.
+     */
+    final Collider collider = new Collider();
+    final BlockPos.Mutable footPos = new BlockPos.Mutable();
+    final BlockPos.Mutable probePos = new BlockPos.Mutable();
+
     private boolean wasGolem;
+    private boolean anyGolem;
+    private boolean cacheable;
     private SoundsKey association;
 
     public AssociationPool(LivingEntity entity, SoundEngine engine) {
@@ -39,6 +48,15 @@ public final class AssociationPool {
         wasGolem = false;
     }
 
+    /**
+     * Resets the lookup state for a new solve, which may be made up of multiple querying passes.
+     */
+    public void begin() {
+        reset();
+        anyGolem = false;
+        cacheable = true;
+    }
+
     /**
      * Returns true if any of the matches in the current pass came from the golem map.
      * <p>
@@ -48,6 +66,31 @@ public final class AssociationPool {
         return wasGolem;
     }
 
+    /**
+     * Returns true if any of the matches since the solve began came from the golem map.
+     * <p>
+     * Golems move around, so such results cannot be remembered by position.
+     */
+    public boolean wasAnyMatchGolem() {
+        return anyGolem;
+    }
+
+    /**
+     * Marks the current solve as depending on more than the blocks around the feet,
+     * such as the stepping entity's exact size and position, or blocks carried by a contraption.
+     */
+    void markUncacheable() {
+        cacheable = false;
+    }
+
+    /**
+     * Returns true if the current solve would have come out the same for any entity stepping on the same block,
+     * so its result may be remembered by position.
+     */
+    boolean isCacheable() {
+        return cacheable && !anyGolem;
+    }
+
     public Association findAssociation(double verticalOffsetAsMinus, boolean isRightFoot) {
         return solver.findAssociation(this, entity, verticalOffsetAsMinus, isRightFoot);
     }
@@ -65,11 +108,16 @@ public final class AssociationPool {
      * @return The matching acoustic names or {@link Emitter#UNASSIGNED} if no match could be determined.
      */
     public SoundsKey get(BlockPos pos, BlockState state, String substrate) {
-        for (Entity golem : entity.getEntityWorld().getOtherEntities(entity, new Box(pos).expand(0.5, 0, 0.5), e -> {
-            return !e.isCollidable(entity) || e.getBoundingBox().maxY < entity.getY() + 0.2F;
-        })) {
+        assert engine.getGolemIndex().matchesWorld(entity, pos, engine.getIsolator().golems(), golem -> isStandingIn(golem, pos))
+                : "Golems indexed at " + pos + " differ from those found in the world";
+
+        for (Entity golem : engine.getGolemIndex().getCandidates(pos)) {
+            if (golem == entity || !isStandingIn(golem, pos)) {
+                continue;
+            }
             if ((association = engine.getIsolator().golems().getAssociation(golem.getType(), substrate)).isEmitter()) {
                 wasGolem = true;
+                anyGolem = true;
                 return association;
             }
         }
@@ -94,6 +142,12 @@ public final class AssociationPool {
         return SoundsKey.UNASSIGNED;
     }
 
+    private boolean isStandingIn(Entity golem, BlockPos pos) {
+        Box box = golem.getBoundingBox();
+        return box.intersects(pos.getX() - 0.5, pos.getY(), pos.getZ() - 0.5, pos.getX() + 1.5, pos.getY() + 1, pos.getZ() + 1.5)
+            && (!golem.isCollidable(entity) || box.maxY < entity.getY() + 0.2F);
+    }
+
     private boolean getForState(BlockState state, String substrate) {
         return (association = engine.getIsolator().blocks(entity.getType()).getAssociation(state, substrate)).isResult();
     }
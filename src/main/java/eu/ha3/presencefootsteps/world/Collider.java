@@ -0,0 +1,56 @@
+package eu.ha3.presencefootsteps.world;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction.Axis;
+import net.minecraft.util.shape.VoxelShape;
+
+/**
+ * The area around an entity's feet that blocks must touch in order to be stepped on.
+ * <p>
+ * Kept as plain coordinates so a single instance can be reused for every solve.
+ */
+final class Collider {
+    private static final double EXPANSION = 0.1;
+    private static final double SPRINTING_HORIZONTAL_EXPANSION = 0.3;
+    private static final double SPRINTING_VERTICAL_EXPANSION = 0.5;
+
+    double minX;
+    double minY;
+    double minZ;
+    double maxX;
+    double maxY;
+    double maxZ;
+
+    public Collider set(Entity entity) {
+        Box box = entity.getBoundingBox();
+        // normalize to the bottom of the block
+        // so we can detect carpets on top of fences
+        double offset = -(box.minY - Math.floor(box.minY));
+        double horizontal = EXPANSION;
+        double vertical = EXPANSION;
+
+        if (entity.isSprinting()) {
+            horizontal += SPRINTING_HORIZONTAL_EXPANSION;
+            vertical += SPRINTING_VERTICAL_EXPANSION;
+        }
+
+        minX = box.minX - horizontal;
+        minY = box.minY + offset - vertical;
+        minZ = box.minZ - horizontal;
+        maxX = box.maxX + horizontal;
+        maxY = box.maxY + offset + vertical;
+        maxZ = box.maxZ + horizontal;
+        return this;
+    }
+
+    /**
+     * Checks whether the bounds of a non-empty shape placed at the given position overlap this collider.
+     */
+    public boolean intersects(VoxelShape shape, BlockPos pos) {
+        return shape.getMin(Axis.X) + pos.getX() < maxX && shape.getMax(Axis.X) + pos.getX() > minX
+            && shape.getMin(Axis.Y) + pos.getY() < maxY && shape.getMax(Axis.Y) + pos.getY() > minY
+            && shape.getMin(Axis.Z) + pos.getZ() < maxZ && shape.getMax(Axis.Z) + pos.getZ() > minZ;
+    }
+}
@@ -0,0 +1,127 @@
+package eu.ha3.presencefootsteps.world;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * An index of the entities near the camera that can be stepped on (boats, shulkers, etc), rebuilt once per tick.
+ * <p>
+ * Entities are bucketed by every block column that a query could find them from,
+ * so that positions with no golems nearby can skip the world's entity query entirely.
+ * <p>
+ * The index is only written to between frames, so it may be read from multiple threads whilst footsteps are generated.
+ */
+public final class GolemIndex {
+    /**
+     * How far beyond the stepping range to look for golems. Covers the neighbouring blocks the solver searches.
+     */
+    private static final double RANGE = 16 + 4;
+
+    private final Long2ObjectOpenHashMap<List<Entity>> columns = new Long2ObjectOpenHashMap<>();
+
+    private int tracked;
+    private final AtomicInteger probes = new AtomicInteger();
+    private final AtomicInteger checks = new AtomicInteger();
+    private int lastProbes;
+    private int lastChecks;
+
+    /**
+     * Rebuilds the index around the given camera entity.
+     */
+    public void update(Entity cameraEntity, Lookup<EntityType<?>> golems) {
+        columns.clear();
+        lastProbes = probes.getAndSet(0);
+        lastChecks = checks.getAndSet(0);
+        tracked = 0;
+
+        if (golems.getSubstrates().isEmpty()) {
+            return;
+        }
+
+        for (Entity golem : cameraEntity.getEntityWorld().getOtherEntities(null, cameraEntity.getBoundingBox().expand(RANGE), e -> golems.contains(e.getType()))) {
+            Box box = golem.getBoundingBox();
+            // queries expand the block being probed by half a block on each side
+            int minX = MathHelper.floor(box.minX - 1.5);
+            int maxX = MathHelper.floor(box.maxX + 0.5);
+            int minZ = MathHelper.floor(box.minZ - 1.5);
+            int maxZ = MathHelper.floor(box.maxZ + 0.5);
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    columns.computeIfAbsent(ChunkPos.toLong(x, z), c -> new ObjectArrayList<>()).add(golem);
+                }
+            }
+            tracked++;
+        }
+    }
+
+    /**
+     * Gets the golems that could be standing in the block at the given position.
+     */
+    public List<Entity> getCandidates(BlockPos pos) {
+        probes.incrementAndGet();
+        if (columns.isEmpty()) {
+            return List.of();
+        }
+        List<Entity> candidates = columns.get(ChunkPos.toLong(pos.getX(), pos.getZ()));
+        if (candidates == null) {
+            return List.of();
+        }
+        checks.incrementAndGet();
+        return candidates;
+    }
+
+    /**
+     * Checks that the golems indexed for a position are the same ones the world's own entity query finds standing there.
+     * <p>
+     * This performs the query the index exists to avoid, so it is only meant to be called from assertions.
+     *
+     * @param entity       The entity doing the stepping, which is never counted.
+     * @param isStandingIn Whether a golem is close enough to the position to be stepped on.
+     */
+    boolean matchesWorld(Entity entity, BlockPos pos, Lookup<EntityType<?>> golems, Predicate<Entity> isStandingIn) {
+        Set<Entity> indexed = new ReferenceOpenHashSet<>();
+        for (Entity golem : columns.getOrDefault(ChunkPos.toLong(pos.getX(), pos.getZ()), List.of())) {
+            if (golem != entity && isStandingIn.test(golem)) {
+                indexed.add(golem);
+            }
+        }
+        Set<Entity> found = new ReferenceOpenHashSet<>(entity.getEntityWorld().getOtherEntities(entity, new Box(pos).expand(0.5, 0, 0.5),
+                e -> golems.contains(e.getType()) && isStandingIn.test(e)
+        ));
+        return indexed.equals(found);
+    }
+
+    /**
+     * The number of golems found during the last update.
+     */
+    public int getTrackedCount() {
+        return tracked;
+    }
+
+    /**
+     * The number of positions queried during the previous tick.
+     * Each of these used to be an entity query against the world.
+     */
+    public int getProbeCount() {
+        return lastProbes;
+    }
+
+    /**
+     * The number of positions queried during the previous tick that had golems nearby.
+     */
+    public int getCheckCount() {
+        return lastChecks;
+    }
+}
@@ -33,12 +33,9 @@ public class GolemLookup extends AbstractSubstrateLookup<EntityType<?>> {
             if (full || !lookup.contains(type)) {
                 writer.object(EntityType.getId(type).toString(), () -> {
                     writer.object("associations", () -> {
-                        lookup.getSubstrates().forEach(substrate -> {
+                        lookup.getAssociations(type).forEach((substrate, association) -> {
                             try {
-                                SoundsKey association = lookup.getAssociation(type, substrate);
-                                if (association.isResult()) {
-                                    writer.field(substrate, association.raw());
-                                }
+                                writer.field(substrate, association.raw());
                             } catch (IOException ignore) {}
                         });
                     });
@@ -0,0 +1,148 @@
+package eu.ha3.presencefootsteps.world;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectSets;
+import net.minecraft.util.collection.IndexedIterable;
+
+/**
+ * A data segment that has been compiled into a flat table for every value of an indexed registry.
+ * <p>
+ * Associations are resolved once when the segment is created, after which looking one up
+ * is a single array read per substrate. The compiled segment never refers back to its source,
+ * and nothing in it is mutated after construction, so it may be read from any thread.
+ * Values that are not part of the index have no associations.
+ * <p>
+ * Tables for the built-in substrates sit at their {@link Substrates#indexOf(String) index}, so finding one doesn't hash
+ * the substrate's name. Tables for any other substrates follow after them.
+ */
+final class IndexedDataSegment<T> implements Lookup.DataSegment<T> {
+    private final IndexedIterable<T> ids;
+    private final Set<String> substrates;
+    private final String[] names;
+    private final Optional<SoundsKey>[][] tables;
+    private final BitSet[] contained;
+    private final BitSet containedAny;
+    private final Map<String, SoundsKey>[] vectors;
+
+    @SuppressWarnings("unchecked")
+    IndexedDataSegment(Lookup.DataSegment<T> source, IndexedIterable<T> ids) {
+        this.ids = ids;
+        this.substrates = ObjectSets.unmodifiable(new ObjectLinkedOpenHashSet<>(source.getSubstrates()));
+
+        final List<String> names = new ObjectArrayList<>(Substrates.BUILT_IN);
+        for (String substrate : substrates) {
+            if (Substrates.indexOf(substrate) < 0) {
+                names.add(substrate);
+            }
+        }
+        this.names = names.toArray(String[]::new);
+
+        final int size = ids.size();
+        tables = new Optional[this.names.length][];
+        contained = new BitSet[this.names.length];
+        containedAny = new BitSet(size);
+
+        for (String substrate : substrates) {
+            Optional<SoundsKey>[] table = new Optional[size];
+            BitSet contains = new BitSet(size);
+            for (int id = 0; id < size; id++) {
+                T value = ids.get(id);
+                if (value == null) {
+                    table[id] = Optional.empty();
+                } else {
+                    table[id] = source.getAssociation(value, substrate);
+                    if (source.contains(value, substrate)) {
+                        contains.set(id);
+                    }
+                }
+            }
+            int index = indexOf(substrate);
+            tables[index] = table;
+            contained[index] = contains;
+        }
+
+        for (int id = 0; id < size; id++) {
+            T value = ids.get(id);
+            if (value != null && source.contains(value)) {
+                containedAny.set(id);
+            }
+        }
+
+        // most states share the same associations, so share the maps too
+        final Map<Map<String, SoundsKey>, Map<String, SoundsKey>> interned = new Object2ObjectOpenHashMap<>();
+        vectors = new Map[size];
+        for (int id = 0; id < size; id++) {
+            T value = ids.get(id);
+            vectors[id] = value == null ? Map.of() : interned.computeIfAbsent(Lookup.collectAssociations(this, value), v -> v);
+        }
+    }
+
+    /**
+     * Gets all the associations for the given value as a shared, unmodifiable map.
+     */
+    public Map<String, SoundsKey> getAssociations(T state) {
+        int id = ids.getRawId(state);
+        return id >= 0 && id < vectors.length ? vectors[id] : Map.of();
+    }
+
+    private int indexOf(String substrate) {
+        int index = Substrates.indexOf(substrate);
+        if (index >= 0) {
+            return index;
+        }
+        for (int i = Substrates.BUILT_IN.size(); i < names.length; i++) {
+            if (names[i].equals(substrate)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Optional<SoundsKey> getAssociation(T state, String substrate) {
+        int index = indexOf(substrate);
+        Optional<SoundsKey>[] table = index < 0 ? null : tables[index];
+        if (table != null) {
+            int id = ids.getRawId(state);
+            if (id >= 0 && id < table.length) {
+                return table[id];
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<String> getSubstrates() {
+        return substrates;
+    }
+
+    @Override
+    public boolean contains(T state) {
+        int id = ids.getRawId(state);
+        return id >= 0 && containedAny.get(id);
+    }
+
+    @Override
+    public boolean contains(T state, String substrate) {
+        int index = indexOf(substrate);
+        BitSet contains = index < 0 ? null : contained[index];
+        if (contains == null) {
+            return false;
+        }
+        int id = ids.getRawId(state);
+        return id >= 0 && contains.get(id);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return substrates.isEmpty();
+    }
+}
@@ -18,9 +18,21 @@ import net.minecraft.util.Identifier;
 import java.io.IOException;
 import java.util.Map;
 
+import org.jetbrains.annotations.Nullable;
+
 public class LocomotionLookup implements Index<Entity, Locomotion> {
     private final Map<Identifier, Locomotion> values = new Object2ObjectLinkedOpenHashMap<>();
 
+    /**
+     * Locomotions already resolved for each entity type, indexed by raw id.
+     * Filled in as types are looked up and discarded whenever new values are loaded.
+     * <p>
+     * Not safe to publish between threads, so it must only be filled from the client thread.
+     * Parallel footstep generation resolves every target's generator before handing them to the workers.
+     */
+    @Nullable
+    private Locomotion[] resolved;
+
     private final PFConfig config;
 
     public LocomotionLookup(PFConfig config) {
@@ -32,7 +44,25 @@ public class LocomotionLookup implements Index<Entity, Locomotion> {
         if (key instanceof PlayerEntity player) {
             return Locomotion.forPlayer(player, config.getLocomotion());
         }
-        return Locomotion.forLiving(key, values.getOrDefault(EntityType.getId(key.getType()), Locomotion.BIPED));
+        return Locomotion.forLiving(key, lookup(key.getType()));
+    }
+
+    private Locomotion lookup(EntityType<?> type) {
+        Locomotion[] resolved = this.resolved;
+        if (resolved == null) {
+            resolved = new Locomotion[Registries.ENTITY_TYPE.size()];
+            this.resolved = resolved;
+        }
+        int id = Registries.ENTITY_TYPE.getRawId(type);
+        if (id < 0 || id >= resolved.length) {
+            return values.getOrDefault(EntityType.getId(type), Locomotion.BIPED);
+        }
+        Locomotion locomotion = resolved[id];
+        if (locomotion == null) {
+            locomotion = values.getOrDefault(EntityType.getId(type), Locomotion.BIPED);
+            resolved[id] = locomotion;
+        }
+        return locomotion;
     }
 
     @Override
@@ -45,6 +75,7 @@ public class LocomotionLookup implements Index<Entity, Locomotion> {
             }
 
             values.put(id, Locomotion.byName(value.getAsString().toUpperCase()));
+            resolved = null;
         };
     }
 
@@ -1,5 +1,6 @@
 package eu.ha3.presencefootsteps.world;
 
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMaps;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 
@@ -10,18 +11,51 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import net.minecraft.util.collection.IndexedIterable;
+
 public final class Lookup<T> {
-    private DataSegment<T> data = UnionDataSegment.empty();
+    private DataSegment<T> source = UnionDataSegment.empty();
+    private DataSegment<T> data = source;
+
+    /**
+     * Associations remembered for lookups that have not been compiled.
+     * Not synchronized. This is only safe because footsteps are only generated in parallel once every lookup is compiled,
+     * so worker threads never reach it.
+     */
+    private final Map<T, Map<String, SoundsKey>> associations = new Object2ObjectOpenHashMap<>();
 
     public boolean load(Stream<? extends DataSegment<T>> data, Lookup<T> parent) {
-        return load(Stream.of(parent.data, UnionDataSegment.of(data)));
+        return load(Stream.of(parent.source, UnionDataSegment.of(data)));
     }
 
     public boolean load(Stream<? extends DataSegment<T>> data) {
-        this.data = UnionDataSegment.of(data);
+        this.source = UnionDataSegment.of(data);
+        this.data = this.source;
+        this.associations.clear();
         return !this.data.isEmpty();
     }
 
+    /**
+     * Compiles the loaded data into a flat table indexed by the raw ids of the given id list.
+     * Any previously compiled table is discarded and rebuilt from the loaded data.
+     * <p>
+     * The compiled table is an immutable snapshot, so unlike the loaded data it may be shared across threads.
+     */
+    public void compile(IndexedIterable<T> ids) {
+        source.bindTags();
+        data = source.isEmpty() ? source : new IndexedDataSegment<>(source, ids);
+        // only kept to compile again when tags change, so nothing read from it needs to be remembered
+        source.releaseCaches();
+        associations.clear();
+    }
+
+    /**
+     * Returns true if this lookup will not be modified by reading from it, either because it has been compiled or has no data.
+     */
+    public boolean isCompiled() {
+        return data != source || source.isEmpty();
+    }
+
     /**
      * This will return the appropriate association for the given state and substrate.
      *
@@ -41,19 +75,28 @@ public final class Lookup<T> {
 
     /**
      * Gets all the associations for the given state.
+     * <p>
+     * Compiled lookups hand out the vectors built during compilation, otherwise they are computed once
+     * and remembered until the lookup is reloaded. Either way the returned map is shared and may not be modified.
+     * Not safe to call off the client thread.
      */
     public Map<String, SoundsKey> getAssociations(T state) {
-        final Map<String, SoundsKey> result = new Object2ObjectOpenHashMap<>();
+        if (data instanceof IndexedDataSegment<T> indexed) {
+            return indexed.getAssociations(state);
+        }
+        return associations.computeIfAbsent(state, s -> collectAssociations(data, s));
+    }
 
-        for (String substrate : getSubstrates()) {
-            SoundsKey association = getAssociation(state, substrate);
+    static <T> Map<String, SoundsKey> collectAssociations(DataSegment<T> data, T state) {
+        final Map<String, SoundsKey> result = new Object2ObjectLinkedOpenHashMap<>();
 
-            if (association.isResult()) {
+        for (String substrate : data.getSubstrates()) {
+            data.getAssociation(state, substrate).filter(SoundsKey::isResult).ifPresent(association -> {
                 result.put(substrate, association);
-            }
+            });
         }
 
-        return Object2ObjectMaps.unmodifiable(new Object2ObjectOpenHashMap<>(result));
+        return result.isEmpty() ? Map.of() : Object2ObjectMaps.unmodifiable(result);
     }
 
     /**
@@ -80,6 +123,17 @@ public final class Lookup<T> {
         boolean contains(T state, String substrate);
 
         boolean isEmpty();
+
+        /**
+         * Called once registry tags have been bound or rebound,
+         * so any lookups that were resolved against the previous tags can be rebuilt.
+         */
+        default void bindTags() {}
+
+        /**
+         * Called once this segment has been compiled, so anything it remembered whilst being read can be let go of.
+         */
+        default void releaseCaches() {}
     }
 
     record UnionDataSegment<T>(List<? extends DataSegment<T>> entries, Set<String> substrates) implements DataSegment<T> {
@@ -90,14 +144,27 @@ public final class Lookup<T> {
             return (UnionDataSegment<T>)EMPTY;
         }
 
+        /**
+         * Combines data segments into one. Later segments take precedence over earlier ones.
+         * <p>
+         * Nested unions are flattened, and if every segment is a substrate lookup they are merged into a single segment.
+         */
+        @SuppressWarnings("unchecked")
         public static <T> DataSegment<T> of(Stream<? extends DataSegment<T>> entries) {
-            var data = entries.filter(i -> !i.isEmpty()).toList().reversed();
+            List<DataSegment<T>> data = entries
+                    .<DataSegment<T>>flatMap(i -> i instanceof UnionDataSegment<T> union ? union.entries().reversed().stream() : Stream.of(i))
+                    .filter(i -> !i.isEmpty())
+                    .toList()
+                    .reversed();
             if (data.size() == 1) {
                 return data.get(0);
             }
             if (data.size() == 0) {
                 return empty();
             }
+            if (data.stream().allMatch(i -> i instanceof AbstractSubstrateLookup)) {
+                return new MergedSubstrateLookup<>((List<AbstractSubstrateLookup<T>>)(List<?>)data);
+            }
             var substrates = data.stream().flatMap(i -> i.getSubstrates().stream()).distinct().collect(Collectors.toUnmodifiableSet());
 
             return new UnionDataSegment<>(data, substrates);
@@ -143,5 +210,15 @@ public final class Lookup<T> {
         public boolean isEmpty() {
             return entries.isEmpty();
         }
+
+        @Override
+        public void bindTags() {
+            entries.forEach(DataSegment::bindTags);
+        }
+
+        @Override
+        public void releaseCaches() {
+            entries.forEach(DataSegment::releaseCaches);
+        }
     }
 }
\ No newline at end of file
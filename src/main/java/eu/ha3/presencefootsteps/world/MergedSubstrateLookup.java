@@ -0,0 +1,105 @@
+package eu.ha3.presencefootsteps.world;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectSets;
+import net.minecraft.util.Identifier;
+
+/**
+ * Several layers of substrate lookups merged into one, with the precedence of each layer already applied.
+ * <p>
+ * Every substrate and id known to any layer is resolved up front the same way a union of the layers would resolve it,
+ * including each layer's fallback to break and default substrates, so lookups no longer depend on the number of layers.
+ */
+final class MergedSubstrateLookup<T> implements Lookup.DataSegment<T> {
+    /**
+     * Stands in for any substrate that none of the layers define. All layers fall back the same way for these.
+     */
+    private static final String OTHER = "\0";
+
+    private final Function<T, Identifier> idGetter;
+    private final Set<String> substrates;
+    private final Map<String, Map<Identifier, Optional<SoundsKey>>> associations = new Object2ObjectOpenHashMap<>();
+    private final Map<String, Set<Identifier>> contained = new Object2ObjectOpenHashMap<>();
+    private final Set<Identifier> containedAny = new ObjectOpenHashSet<>();
+
+    /**
+     * @param layers The layers to merge, in order of precedence.
+     */
+    MergedSubstrateLookup(List<? extends AbstractSubstrateLookup<T>> layers) {
+        this.idGetter = layers.get(0)::getId;
+
+        Set<String> substrates = new ObjectLinkedOpenHashSet<>();
+        Set<Identifier> ids = new ObjectOpenHashSet<>();
+        for (var layer : layers) {
+            layer.getSubstrateMaps().forEach((substrate, values) -> {
+                substrates.add(substrate);
+                ids.addAll(values.keySet());
+                contained.computeIfAbsent(substrate, s -> new ObjectOpenHashSet<>()).addAll(values.keySet());
+                containedAny.addAll(values.keySet());
+            });
+        }
+        this.substrates = ObjectSets.unmodifiable(substrates);
+
+        for (String substrate : substrates) {
+            associations.put(substrate, resolve(layers, ids, substrate));
+        }
+        associations.put(OTHER, resolve(layers, ids, OTHER));
+    }
+
+    private static Map<Identifier, Optional<SoundsKey>> resolve(List<? extends AbstractSubstrateLookup<?>> layers, Set<Identifier> ids, String substrate) {
+        Map<Identifier, Optional<SoundsKey>> values = new Object2ObjectOpenHashMap<>();
+        for (Identifier id : ids) {
+            for (var layer : layers) {
+                Optional<SoundsKey> value = layer.getSubstrateMap(id, substrate).getOrDefault(id, Optional.empty());
+                if (value.isPresent()) {
+                    values.put(id, value);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Optional<SoundsKey> getAssociation(@Nullable T key, String substrate) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Map<Identifier, Optional<SoundsKey>> values = associations.get(substrate);
+        if (values == null) {
+            values = associations.get(OTHER);
+        }
+        return values.getOrDefault(idGetter.apply(key), Optional.empty());
+    }
+
+    @Override
+    public Set<String> getSubstrates() {
+        return substrates;
+    }
+
+    @Override
+    public boolean contains(T key) {
+        return containedAny.contains(idGetter.apply(key));
+    }
+
+    @Override
+    public boolean contains(T key, String substrate) {
+        Set<Identifier> ids = contained.get(substrate);
+        return ids != null && ids.contains(idGetter.apply(key));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return substrates.isEmpty();
+    }
+}
@@ -3,7 +3,7 @@ package eu.ha3.presencefootsteps.world;
 import eu.ha3.presencefootsteps.compat.ContraptionCollidable;
 import eu.ha3.presencefootsteps.sound.SoundEngine;
 import eu.ha3.presencefootsteps.util.PlayerUtil;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.network.OtherClientPlayerEntity;
 import net.minecraft.entity.Entity;
@@ -12,7 +12,7 @@ import net.minecraft.entity.LivingEntity;
 import net.minecraft.particle.ParticleTypes;
 import net.minecraft.registry.tag.FluidTags;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Direction.Axis;
 import net.minecraft.util.math.MathHelper;
@@ -25,46 +25,38 @@ public class PFSolver implements Solver {
 
     private final SoundEngine engine;
 
-    private long lastUpdateTime;
-    private final Long2ObjectOpenHashMap<Association> associationCache = new Long2ObjectOpenHashMap<>();
+    private final AssociationCache associationCache = new AssociationCache();
 
     public PFSolver(SoundEngine engine) {
         this.engine = engine;
     }
 
-    private BlockState getBlockStateAt(Entity entity, BlockPos pos) {
+    private BlockState getBlockStateAt(AssociationPool associations, Entity entity, BlockPos pos) {
         World world = entity.getEntityWorld();
         BlockState state = world.getBlockState(pos);
 
         if (state.isAir() && (entity instanceof ContraptionCollidable collidable)) {
+            // contraptions move without updating the world
+            associations.markUncacheable();
             state = collidable.getCollidedStateAt(pos);
         }
 
         return state.getBlock().getAppearance(state, world, pos, Direction.UP, state, pos);
     }
 
-    private Box getCollider(Entity player) {
-        Box collider = player.getBoundingBox();
-        // normalize to the bottom of the block
-        // so we can detect carpets on top of fences
-        collider = collider.offset(0, -(collider.minY - Math.floor(collider.minY)), 0);
-
-        double expansionRatio = 0.1;
-
-        // add buffer
-        collider = collider.expand(expansionRatio);
-        if (player.isSprinting()) {
-            collider = collider.expand(0.3, 0.5, 0.3);
-        }
-        return collider;
-    }
-
-    private boolean checkCollision(World world, BlockState state, BlockPos pos, Box collider) {
+    private boolean checkCollision(AssociationPool associations, World world, BlockState state, BlockPos pos, Collider collider) {
         VoxelShape shape = state.getCollisionShape(world, pos);
         if (shape.isEmpty()) {
             shape = state.getOutlineShape(world, pos);
         }
-        return shape.isEmpty() || shape.getBoundingBox().offset(pos).intersects(collider);
+        if (shape.isEmpty()) {
+            return true;
+        }
+        // A full block level with the feet is always touched. Anything else depends on the entity's size and position.
+        if (pos.getY() != associations.footPos.getY() || !Block.isShapeFullCube(shape)) {
+            associations.markUncacheable();
+        }
+        return collider.intersects(shape, pos);
     }
 
     @Override
@@ -74,14 +66,14 @@ public class PFSolver implements Solver {
         }
 
         pos = pos.up();
-        BlockState above = getBlockStateAt(ply, pos);
+        BlockState above = getBlockStateAt(associations, ply, pos);
 
         Lookup<BlockState> lookup = engine.getIsolator().blocks(ply.getType());
         SoundsKey foliage = lookup.getAssociation(above, Substrates.FOLIAGE);
 
         // we discard the normal block association, and mark the foliage as detected
         if (foliage.isEmitter() && lookup.getAssociation(above, Substrates.MESSY) == SoundsKey.MESSY_GROUND) {
-            return Association.of(above, pos, ply, false, SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER, foliage);
+            return Association.of(above, pos, false, SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER, foliage);
         }
 
         return Association.NOT_EMITTER;
@@ -90,61 +82,92 @@ public class PFSolver implements Solver {
     @Override
     public Association findAssociation(AssociationPool associations, LivingEntity ply, double verticalOffsetAsMinus, boolean isRightFoot) {
 
-        double rot = Math.toRadians(MathHelper.wrapDegrees(ply.getYaw()));
+        if (!(ply instanceof OtherClientPlayerEntity)) {
+            Vec3d vel = ply.getVelocity();
 
-        Vec3d pos = ply.getEntityPos();
+            if (vel.lengthSquared() != 0 && Math.abs(vel.y) < 0.004) {
+                return Association.NOT_EMITTER; // Don't play sounds on every tiny bounce
+            }
+        }
+
+        double rot = Math.toRadians(MathHelper.wrapDegrees(ply.getYaw()));
 
         float feetDistanceToCenter = 0.2f * (isRightFoot ? -1 : 1)
                 * PlayerUtil.getScale(ply) // scale foot offset by the player's scale
         ;
 
-        BlockPos footPos = BlockPos.ofFloored(
-            pos.x + Math.cos(rot) * feetDistanceToCenter,
-            ply.getBoundingBox().getMin(Axis.Y) - TRAP_DOOR_OFFSET - verticalOffsetAsMinus,
-            pos.z + Math.sin(rot) * feetDistanceToCenter
+        BlockPos.Mutable footPos = associations.footPos.set(
+            MathHelper.floor(ply.getX() + Math.cos(rot) * feetDistanceToCenter),
+            MathHelper.floor(ply.getBoundingBox().minY - TRAP_DOOR_OFFSET - verticalOffsetAsMinus),
+            MathHelper.floor(ply.getZ() + Math.sin(rot) * feetDistanceToCenter)
         );
+        long footKey = footPos.asLong();
 
-        if (!(ply instanceof OtherClientPlayerEntity)) {
-            Vec3d vel = ply.getVelocity();
+        // Remembered results are shared by every entity stepping on the same block,
+        // so only entities whose foot is inside their own bounds and level with the block below them may use them.
+        boolean useCache = verticalOffsetAsMinus == 0 && Math.abs(feetDistanceToCenter) < ply.getWidth() / 2;
 
-            if (vel.lengthSquared() != 0 && Math.abs(vel.y) < 0.004) {
-                return Association.NOT_EMITTER; // Don't play sounds on every tiny bounce
+        Lookup<BlockState> lookup = engine.getIsolator().blocks(ply.getType());
+        int variant = ply.isSprinting() ? AssociationCache.VARIANT_SPRINTING
+                : ply.getEquippedStack(EquipmentSlot.FEET).isEmpty() ? AssociationCache.VARIANT_BARE
+                : AssociationCache.VARIANT_SHOD;
+
+        if (useCache) {
+            Association cached = associationCache.get(lookup, variant, footKey);
+            if (cached != null) {
+                return cached;
             }
         }
 
-        long time = ply.getEntityWorld().getTime();
-        if (time != lastUpdateTime) {
-            lastUpdateTime = time;
-            associationCache.clear();
-        }
-
-        Association cached = associationCache.get(footPos.asLong());
-        if (cached != null) {
-            return cached;
+        associations.begin();
+        Association assos = findAssociation(associations, ply, footPos, feetDistanceToCenter);
+        if (useCache && associations.isCacheable()) {
+            associationCache.put(lookup, variant, footKey, assos);
         }
+        return assos;
+    }
 
-        Box collider = getCollider(ply);
+    private Association findAssociation(AssociationPool associations, LivingEntity ply, BlockPos footPos, float feetDistanceToCenter) {
+        Collider collider = associations.collider.set(ply);
 
-        BlockPos.Mutable mutableFootPos = footPos.mutableCopy();
+        BlockPos.Mutable mutableFootPos = associations.probePos.set(footPos);
 
         if (feetDistanceToCenter > 1) {
+            associations.markUncacheable();
             for (BlockPos underfootPos : BlockPos.iterateOutwards(footPos, (int)feetDistanceToCenter, 2, (int)feetDistanceToCenter)) {
                 mutableFootPos.set(underfootPos);
                 Association assos = findAssociation(associations, ply, collider, underfootPos, mutableFootPos);
                 if (assos.isResult()) {
-                    associationCache.put(footPos.asLong(), assos);
                     return assos;
                 }
             }
         }
 
-        Association assos = findAssociation(associations, ply, collider, footPos, mutableFootPos);
-        associationCache.put(footPos.asLong(), assos);
-        return assos;
+        return findAssociation(associations, ply, collider, footPos, mutableFootPos);
+    }
+
+    @Override
+    public void onTick(World world) {
+        associationCache.update(world);
+    }
+
+    @Override
+    public void onBlockChanged(BlockPos pos) {
+        associationCache.invalidate(pos);
+    }
+
+    @Override
+    public void onChunkChanged(ChunkPos pos) {
+        associationCache.invalidate(pos);
+    }
+
+    @Override
+    public void invalidate() {
+        associationCache.clear();
     }
 
     @SuppressWarnings("deprecation")
-    private Association findAssociation(AssociationPool associations, LivingEntity player, Box collider, BlockPos originalFootPos, BlockPos.Mutable pos) {
+    private Association findAssociation(AssociationPool associations, LivingEntity player, Collider collider, BlockPos originalFootPos, BlockPos.Mutable pos) {
         Association association;
 
         if (engine.getConfig().getVisualiser()) {
@@ -168,20 +191,21 @@ public class PFSolver implements Solver {
             }
         }
 
+        // where the edges are probed depends on the entity's size and position
+        associations.markUncacheable();
+
         double radius = 0.4;
-        int[] xValues = new int[] {
-                MathHelper.floor(collider.getMin(Axis.X) - radius),
-                pos.getX(),
-                MathHelper.floor(collider.getMax(Axis.X) + radius)
-        };
-        int[] zValues = new int[] {
-                MathHelper.floor(collider.getMin(Axis.Z) - radius),
-                pos.getZ(),
-                MathHelper.floor(collider.getMax(Axis.Z) + radius)
-        };
-
-        for (int x : xValues) {
-            for (int z : zValues) {
+        final int minX = MathHelper.floor(collider.minX - radius);
+        final int midX = pos.getX();
+        final int maxX = MathHelper.floor(collider.maxX + radius);
+        final int minZ = MathHelper.floor(collider.minZ - radius);
+        final int midZ = pos.getZ();
+        final int maxZ = MathHelper.floor(collider.maxZ + radius);
+
+        for (int i = 0; i < 3; i++) {
+            int x = i == 0 ? minX : i == 1 ? midX : maxX;
+            for (int j = 0; j < 3; j++) {
+                int z = j == 0 ? minZ : j == 1 ? midZ : maxZ;
                 if (x != originalFootPos.getX() || z != originalFootPos.getZ()) {
                     pos.set(x, originalFootPos.getY(), z);
                     if (engine.getConfig().getVisualiser()) {
@@ -208,26 +232,27 @@ public class PFSolver implements Solver {
         }
         pos.set(originalFootPos);
 
-        BlockState state = getBlockStateAt(player, pos);
+        BlockState state = getBlockStateAt(associations, player, pos);
 
         if (state.isLiquid()) {
+            pos.move(Direction.DOWN);
             if (state.getFluidState().isIn(FluidTags.LAVA)) {
-                return Association.of(state, pos.down(), player, false, SoundsKey.LAVAFINE, SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER);
+                return Association.of(state, pos, false, SoundsKey.LAVAFINE, SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER);
             }
-            return Association.of(state, pos.down(), player, false, SoundsKey.WATERFINE, SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER);
+            return Association.of(state, pos, false, SoundsKey.WATERFINE, SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER);
         }
 
         return association;
     }
 
-    private Association findAssociation(AssociationPool associations, LivingEntity entity, BlockPos.Mutable pos, Box collider) {
+    private Association findAssociation(AssociationPool associations, LivingEntity entity, BlockPos.Mutable pos, Collider collider) {
         associations.reset();
-        BlockState target = getBlockStateAt(entity, pos);
+        BlockState target = getBlockStateAt(associations, entity, pos);
 
         // Try to see if the block above is a carpet...
         pos.move(Direction.UP);
         final boolean hasRain = entity.getEntityWorld().hasRain(pos);
-        BlockState carpet = getBlockStateAt(entity, pos);
+        BlockState carpet = getBlockStateAt(associations, entity, pos);
         VoxelShape shape = carpet.getOutlineShape(entity.getEntityWorld(), pos);
         boolean isValidCarpet = !shape.isEmpty() && shape.getMax(Axis.Y) < 0.3F;
         SoundsKey association = SoundsKey.UNASSIGNED;
@@ -246,10 +271,10 @@ public class PFSolver implements Solver {
             // If the block surface we're on is not an emitter, check for fences below us
             if (!association.isEmitter() || !association.isResult()) {
                 pos.move(Direction.DOWN);
-                BlockState fence = getBlockStateAt(entity, pos);
+                BlockState fence = getBlockStateAt(associations, entity, pos);
 
                 // Only check fences if we're actually touching them
-                if (checkCollision(entity.getEntityWorld(), fence, pos, collider) && (association = associations.get(pos, fence, Substrates.FENCE)).isResult()) {
+                if (checkCollision(associations, entity.getEntityWorld(), fence, pos, collider) && (association = associations.get(pos, fence, Substrates.FENCE)).isResult()) {
                     carpet = target;
                     target = fence;
                     // reference frame moved down by 1
@@ -272,7 +297,7 @@ public class PFSolver implements Solver {
         }
 
         // Check collision against small blocks
-        if (association.isResult() && !checkCollision(entity.getEntityWorld(), target, pos, collider)) {
+        if (association.isResult() && !checkCollision(associations, entity.getEntityWorld(), target, pos, collider)) {
             association = SoundsKey.UNASSIGNED;
         }
 
@@ -288,6 +313,6 @@ public class PFSolver implements Solver {
             wetAssociation = associations.get(pos, target, Substrates.WET);
         }
 
-        return Association.of(target, pos, entity, associations.wasLastMatchGolem() && entity.isOnGround(), association, wetAssociation, foliage);
+        return Association.of(target, pos, associations.wasLastMatchGolem() && entity.isOnGround(), association, wetAssociation, foliage);
     }
 }
@@ -2,6 +2,8 @@ package eu.ha3.presencefootsteps.world;
 
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
 
 /**
  * Solves in-world locations and players into associations. Associations are an
@@ -37,4 +39,26 @@ public interface Solver {
      * it, using a custom strategy which strategies are defined by the solver.
      */
     Association findAssociation(AssociationPool associations, LivingEntity ply, BlockPos pos, String strategy);
-}
\ No newline at end of file
+
+    /**
+     * Notifies the solver that a new tick has started in the given world, before any feet are solved for it.
+     * Always called from the client thread.
+     */
+    default void onTick(World world) { }
+
+    /**
+     * Notifies the solver that the block at the given position has changed,
+     * so any results that depended on it can be discarded.
+     */
+    default void onBlockChanged(BlockPos pos) { }
+
+    /**
+     * Notifies the solver that the given chunk has been loaded or unloaded.
+     */
+    default void onChunkChanged(ChunkPos pos) { }
+
+    /**
+     * Discards any results the solver may be holding on to.
+     */
+    default void invalidate() { }
+}
@@ -5,6 +5,7 @@ import eu.ha3.presencefootsteps.util.JsonObjectWriter;
 import it.unimi.dsi.fastutil.objects.*;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.MappingResolver;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.RegistryKeys;
@@ -14,6 +15,7 @@ import net.minecraft.state.property.Property;
 import net.minecraft.util.Identifier;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -42,7 +44,7 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
             SoundsKey sound = SoundsKey.of(entry.getValue().getAsString());
             Key k = Key.of(entry.getKey(), sound);
 
-            substrates.computeIfAbsent(k.substrate, Bucket.Substrate::new).add(k);
+            substrates.computeIfAbsent(k.substrate, substrate -> new Bucket.Substrate()).add(k);
         });
     }
 
@@ -77,6 +79,16 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
         return substrates.isEmpty();
     }
 
+    @Override
+    public void bindTags() {
+        substrates.values().forEach(Bucket::bindTags);
+    }
+
+    @Override
+    public void releaseCaches() {
+        substrates.values().forEach(Bucket::releaseCaches);
+    }
+
     public static void writeToReport(Lookup<BlockState> lookup, boolean full, JsonObjectWriter writer, Map<String, BlockSoundGroup> groups) throws IOException {
         writer.each(Registries.BLOCK, block -> {
             BlockState state = block.getDefaultState();
@@ -105,12 +117,9 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
                     writer.field("tags", getTagData(state));
                     writer.field("sound", getSoundData(group));
                     writer.object("associations", () -> {
-                        lookup.getSubstrates().forEach(substrate -> {
+                        lookup.getAssociations(state).forEach((substrate, association) -> {
                             try {
-                                SoundsKey association = lookup.getAssociation(state, substrate);
-                                if (association.isResult()) {
-                                    writer.field(substrate, association.raw());
-                                }
+                                writer.field(substrate, association.raw());
                             } catch (IOException ignore) {}
                         });
                     });
@@ -149,65 +158,108 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
     }
 
     private interface Bucket {
+        Identifier NULL_ID = Identifier.ofVanilla("air");
 
         Bucket EMPTY = state -> Key.NULL;
 
         default void add(Key key) {}
 
+        default void bindTags() {}
+
+        default void releaseCaches() {}
+
         Key get(BlockState state);
 
         default boolean contains(BlockState state) {
             return false;
         }
 
-        record Substrate(
-                KeyList wildcards,
-                Map<Identifier, Bucket> blocks,
-                Map<Identifier, Bucket> tags) implements Bucket {
-
-            Substrate(String substrate) {
-                this(new KeyList(), new Object2ObjectLinkedOpenHashMap<>(), new Object2ObjectLinkedOpenHashMap<>());
-            }
+        final class Substrate implements Bucket {
+            private final Tile wildcards = new Tile();
+            private final Map<Identifier, Bucket> blocks = new Object2ObjectLinkedOpenHashMap<>();
+            private final Map<TagKey<Block>, Bucket> tags = new Object2ObjectLinkedOpenHashMap<>();
+            /**
+             * Block to bucket table. Filled in for every tagged block when tags are bound,
+             * and lazily for any other block as it is first seen.
+             */
+            private final Reference2ObjectOpenHashMap<Block, Bucket> resolved = new Reference2ObjectOpenHashMap<>();
+            private boolean bound;
 
             @Override
             public void add(Key key) {
                 if (key.isWildcard()) {
                     wildcards.add(key);
+                } else if (key.isTag()) {
+                    tags.computeIfAbsent(TagKey.of(RegistryKeys.BLOCK, key.identifier()), tag -> new Tile()).add(key);
                 } else {
-                    (key.isTag() ? tags : blocks).computeIfAbsent(key.identifier(), Tile::new).add(key);
+                    blocks.computeIfAbsent(key.identifier(), id -> new Tile()).add(key);
                 }
             }
 
+            @Override
+            public void bindTags() {
+                resolved.clear();
+                bound = true;
+                // earlier tags take priority, and explicit block entries over either
+                tags.forEach((tag, bucket) -> {
+                    for (var entry : Registries.BLOCK.iterateEntries(tag)) {
+                        resolved.computeIfAbsent(entry.value(), block -> blocks.getOrDefault(getId(block), bucket));
+                    }
+                });
+            }
+
+            @Override
+            public void releaseCaches() {
+                // tags are walked again until they are next bound
+                resolved.clear();
+                resolved.trim();
+                bound = false;
+                wildcards.releaseCaches();
+                blocks.values().forEach(Bucket::releaseCaches);
+                tags.values().forEach(Bucket::releaseCaches);
+            }
+
             @Override
             public Key get(BlockState state) {
                 final Key association = getTile(state).get(state);
 
                 return association == Key.NULL
-                        ? wildcards.findMatch(state)
+                        ? wildcards.get(state)
                         : association;
             }
 
             @Override
             public boolean contains(BlockState state) {
-                return getTile(state).contains(state) || wildcards.findMatch(state) != Key.NULL;
+                return getTile(state).contains(state) || wildcards.contains(state);
             }
 
-            @SuppressWarnings("deprecation")
             private Bucket getTile(BlockState state) {
-                return blocks.computeIfAbsent(state.getBlock().getRegistryEntry().getKey().get().getValue(), id -> {
-                    for (Identifier tag : tags.keySet()) {
-                        if (state.isIn(TagKey.of(RegistryKeys.BLOCK, tag))) {
-                            return tags.get(tag);
+                return resolved.computeIfAbsent(state.getBlock(), block -> {
+                    Bucket tile = blocks.get(getId(block));
+                    if (tile != null) {
+                        return tile;
+                    }
+
+                    if (!bound) {
+                        for (var tag : tags.entrySet()) {
+                            if (state.isIn(tag.getKey())) {
+                                return tag.getValue();
+                            }
                         }
                     }
 
                     return Bucket.EMPTY;
                 });
             }
+
+            @SuppressWarnings("deprecation")
+            private static Identifier getId(Block block) {
+                return block.getRegistryEntry().getKey().get().getValue();
+            }
         }
 
-        record Tile(Map<BlockState, Key> cache, KeyList keys) implements Bucket {
-            Tile(Identifier id) {
+        record Tile(Object2ObjectLinkedOpenHashMap<BlockState, Key> cache, KeyList keys) implements Bucket {
+            Tile() {
                 this(new Object2ObjectLinkedOpenHashMap<>(), new KeyList());
             }
 
@@ -216,6 +268,13 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
                 keys.add(key);
             }
 
+            @Override
+            public void releaseCaches() {
+                cache.clear();
+                cache.trim();
+                keys.releaseCaches();
+            }
+
             @Override
             public Key get(BlockState state) {
                 return cache.computeIfAbsent(state, keys::findMatch);
@@ -240,6 +299,11 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
             keys.add(key);
         }
 
+        void releaseCaches() {
+            priorityKeys.forEach(Key::releaseCaches);
+            keys.forEach(Key::releaseCaches);
+        }
+
         private Set<Key> getSetFor(Key key) {
             return key.empty() ? keys : priorityKeys;
         }
@@ -259,16 +323,31 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
         }
     }
 
-    private record Key(
-            Identifier identifier,
-            String substrate,
-            Set<Attribute> properties,
-            Optional<SoundsKey> value,
-            boolean empty,
-            boolean isTag,
-            boolean isWildcard
-    ) {
-        public static final Key NULL = new Key(Identifier.ofVanilla("air"), "", ObjectSets.emptySet(), Optional.empty(), true, false, false);
+    private static final class Key {
+        public static final Key NULL = new Key(Bucket.NULL_ID, "", ObjectSets.emptySet(), Optional.empty(), true, false, false);
+
+        private final Identifier identifier;
+        private final String substrate;
+        private final Set<Attribute> properties;
+        private final Optional<SoundsKey> value;
+        private final boolean empty;
+        private final boolean isTag;
+        private final boolean isWildcard;
+
+        /**
+         * This key's attributes resolved against every block it has been matched with.
+         */
+        private final Reference2ObjectOpenHashMap<Block, Matcher> matchers = new Reference2ObjectOpenHashMap<>();
+
+        private Key(Identifier identifier, String substrate, Set<Attribute> properties, Optional<SoundsKey> value, boolean empty, boolean isTag, boolean isWildcard) {
+            this.identifier = identifier;
+            this.substrate = substrate;
+            this.properties = properties;
+            this.value = value;
+            this.empty = empty;
+            this.isTag = isTag;
+            this.isWildcard = isWildcard;
+        }
 
         public static Key of(String key, SoundsKey value) {
             final boolean isTag = key.indexOf('#') == 0;
@@ -279,7 +358,7 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
 
             final String id = key.split("[\\.\\[]")[0];
             final boolean isWildcard = id.indexOf('*') == 0;
-            Identifier identifier =  NULL.identifier();
+            Identifier identifier =  NULL.identifier;
 
             if (!isWildcard) {
                 if (id.indexOf('^') > -1) {
@@ -322,22 +401,28 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
                 return true;
             }
 
-            Map<Property<?>, Comparable<?>> entries = state.getEntries();
-            Set<Property<?>> keys = entries.keySet();
+            return matchers.computeIfAbsent(state.getBlock(), block -> Matcher.of(block, properties)).matches(state);
+        }
 
-            for (Attribute property : properties) {
-                for (Property<?> key : keys) {
-                    if (key.getName().equals(property.name)) {
-                        Comparable<?> value = entries.get(key);
+        void releaseCaches() {
+            matchers.clear();
+            matchers.trim();
+        }
 
-                        if (!Objects.toString(value).equalsIgnoreCase(property.value)) {
-                            return false;
-                        }
-                    }
-                }
-            }
+        Identifier identifier() {
+            return identifier;
+        }
+
+        boolean empty() {
+            return empty;
+        }
+
+        boolean isTag() {
+            return isTag;
+        }
 
-            return true;
+        boolean isWildcard() {
+            return isWildcard;
         }
 
         @Override
@@ -368,6 +453,45 @@ public record StateLookup(Map<String, Bucket> substrates) implements Lookup.Data
                     && Objects.equals(properties, other.properties);
         }
 
+        /**
+         * A key's attributes resolved against the properties of a specific block.
+         * Attributes naming properties the block does not have are ignored.
+         */
+        private record Matcher(Property<?>[] properties, Set<?>[] values) {
+            static final Matcher ANY = new Matcher(new Property<?>[0], new Set<?>[0]);
+
+            static Matcher of(Block block, Set<Attribute> attributes) {
+                List<Property<?>> properties = new ObjectArrayList<>();
+                List<Set<?>> values = new ObjectArrayList<>();
+
+                for (Attribute attribute : attributes) {
+                    @Nullable
+                    Property<?> property = block.getStateManager().getProperty(attribute.name);
+                    if (property != null) {
+                        properties.add(property);
+                        values.add(property.getValues().stream()
+                                .filter(value -> Objects.toString(value).equalsIgnoreCase(attribute.value))
+                                .collect(ObjectOpenHashSet.toSet()));
+                    }
+                }
+
+                if (properties.isEmpty()) {
+                    return ANY;
+                }
+
+                return new Matcher(properties.toArray(Property<?>[]::new), values.toArray(Set<?>[]::new));
+            }
+
+            boolean matches(BlockState state) {
+                for (int i = 0; i < properties.length; i++) {
+                    if (!values[i].contains(state.get(properties[i]))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
         private record Attribute(String name, String value) {
             Attribute(String prop) {
                 this(prop.split("="));
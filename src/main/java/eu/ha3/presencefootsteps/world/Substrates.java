@@ -1,5 +1,6 @@
 package eu.ha3.presencefootsteps.world;
 
+import java.util.List;
 import java.util.Set;
 
 public interface Substrates {
@@ -12,6 +13,25 @@ public interface Substrates {
 
     Set<String> SUPPLIMENTART_SUBSTRATES = Set.of(WET, FOLIAGE, MESSY);
 
+    /**
+     * The substrates the solver asks for, in order of their {@link #indexOf(String) index}.
+     */
+    List<String> BUILT_IN = List.of(DEFAULT, CARPET, WET, FENCE, FOLIAGE, MESSY);
+
+    /**
+     * Gets the position of a built-in substrate in {@link #BUILT_IN}, or -1 for any other.
+     * <p>
+     * The solver always passes the constants above, so they are found by identity without hashing the name.
+     */
+    static int indexOf(String substrate) {
+        for (int i = 0; i < BUILT_IN.size(); i++) {
+            if (BUILT_IN.get(i) == substrate) {
+                return i;
+            }
+        }
+        return BUILT_IN.indexOf(substrate);
+    }
+
     static boolean isDefault(String substrate) {
         return Substrates.DEFAULT.equals(substrate);
     }
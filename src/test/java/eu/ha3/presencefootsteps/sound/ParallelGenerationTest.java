@@ -0,0 +1,166 @@
+package eu.ha3.presencefootsteps.sound;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import eu.ha3.presencefootsteps.PFConfig;
+import eu.ha3.presencefootsteps.config.Variator;
+import eu.ha3.presencefootsteps.sound.acoustics.AcousticLibrary;
+import eu.ha3.presencefootsteps.sound.acoustics.DeferredAcousticLibrary;
+import eu.ha3.presencefootsteps.sound.generator.Locomotion;
+import eu.ha3.presencefootsteps.sound.generator.StepSoundGenerator;
+import eu.ha3.presencefootsteps.world.Association;
+import eu.ha3.presencefootsteps.world.AssociationPool;
+import eu.ha3.presencefootsteps.world.Solver;
+import eu.ha3.presencefootsteps.world.SoundsKey;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.EquipmentSlot;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Drives real step generators through the same scripted motion twice, once one after the other and once in
+ * batches on a worker pool, and checks that both produce the same acoustics in the same order.
+ */
+class ParallelGenerationTest {
+    private static final int ENTITIES = 100;
+    private static final int TICKS = 200;
+    private static final long MILLIS_PER_TICK = 50;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void batchedGenerationMatchesSequentialGeneration() {
+        List<String> sequential = new Simulation().run(generators -> generators.forEach(Simulation::step));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<String> batched;
+        try {
+            batched = new Simulation().run(generators -> SoundEngine.generateInBatches(generators, executor, Simulation::step));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(sequential.stream().anyMatch(acoustic -> acoustic.endsWith(State.WALK.name())), "Entities should have taken steps");
+        assertTrue(sequential.stream().anyMatch(acoustic -> acoustic.endsWith(State.STAND.name())), "Entities should have stood still");
+        assertEquals(sequential, batched);
+    }
+
+    private interface Frame {
+        void generate(List<StepSoundGenerator> generators);
+    }
+
+    /**
+     * A world of entities walking in straight lines at different speeds, with every third one stopping for a while part way.
+     * Each simulation has its own engine, generators and clock, so running it again starts over from the same state.
+     */
+    private static final class Simulation {
+        private final AtomicLong tick = new AtomicLong();
+        private final List<String> played = new ArrayList<>();
+        private final Thread owner = Thread.currentThread();
+
+        private final SoundEngine engine = mock(SoundEngine.class);
+        private final List<StepSoundGenerator> generators = new ArrayList<>();
+
+        Simulation() {
+            AcousticLibrary library = mock(AcousticLibrary.class);
+            doAnswer(invocation -> {
+                assertSame(owner, Thread.currentThread(), "Acoustics must only be played on the client thread");
+                LivingEntity entity = invocation.getArgument(0);
+                Association association = invocation.getArgument(1);
+                played.add(tick.get() + " " + entity.getId() + " " + association.dry().raw() + " " + invocation.getArgument(2));
+                return null;
+            }).when(library).playStep(any(), any(), any(), any());
+
+            Isolator isolator = mock(Isolator.class);
+            when(isolator.variator()).thenReturn(new Variator());
+            when(isolator.acoustics()).thenReturn(new DeferredAcousticLibrary(library));
+
+            Solver solver = mock(Solver.class);
+            when(solver.findAssociation(any(AssociationPool.class), any(LivingEntity.class), anyDouble(), anyBoolean())).thenAnswer(invocation -> {
+                LivingEntity entity = invocation.getArgument(1);
+                return Association.of(Blocks.STONE.getDefaultState(), BlockPos.ORIGIN, false,
+                        SoundsKey.of("step_" + entity.getId()), SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER);
+            });
+            when(solver.findAssociation(any(AssociationPool.class), any(LivingEntity.class), any(BlockPos.class), anyString())).thenReturn(Association.NOT_EMITTER);
+
+            when(engine.getIsolator()).thenReturn(isolator);
+            when(engine.getSolver()).thenReturn(solver);
+            when(engine.getConfig()).thenReturn(mock(PFConfig.class));
+            when(engine.getFrameTime()).thenAnswer(invocation -> tick.get() * MILLIS_PER_TICK);
+
+            @SuppressWarnings("unchecked")
+            RegistryEntry<Biome> biome = mock(RegistryEntry.class);
+            when(biome.getKey()).thenReturn(Optional.empty());
+            World world = mock(World.class);
+            when(world.getTime()).thenAnswer(invocation -> tick.get());
+            when(world.getBiome(any())).thenReturn(biome);
+
+            for (int i = 0; i < ENTITIES; i++) {
+                generators.add(Locomotion.BIPED.supplyGenerator(createEntity(world, i), engine).orElseThrow());
+            }
+        }
+
+        private LivingEntity createEntity(World world, int index) {
+            double speed = 0.05 + 0.02 * (index % 7);
+            boolean stops = index % 3 == 0;
+
+            LivingEntity entity = mock(LivingEntity.class);
+            when(entity.getId()).thenReturn(index + 1);
+            when(entity.getType()).thenAnswer(invocation -> EntityType.PIG);
+            when(entity.getWidth()).thenReturn(EntityType.PIG.getDimensions().width());
+            when(entity.getEntityWorld()).thenReturn(world);
+            when(entity.isOnGround()).thenReturn(true);
+            when(entity.getBlockPos()).thenReturn(BlockPos.ORIGIN);
+            when(entity.getEquippedStack(EquipmentSlot.FEET)).thenReturn(ItemStack.EMPTY);
+            when(entity.getX()).thenAnswer(invocation -> {
+                long t = tick.get();
+                long moving = stops ? Math.min(t, 60) + Math.max(0, t - 140) : t;
+                return speed * moving;
+            });
+            when(entity.getZ()).thenReturn((double)index);
+            return entity;
+        }
+
+        static void step(StepSoundGenerator generator) {
+            generator.generateFootsteps(LevelOfDetail.FULL);
+        }
+
+        List<String> run(Frame frame) {
+            for (int t = 1; t <= TICKS; t++) {
+                tick.set(t);
+                frame.generate(generators);
+            }
+            return played;
+        }
+    }
+}
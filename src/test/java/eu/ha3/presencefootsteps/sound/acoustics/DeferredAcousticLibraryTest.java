@@ -0,0 +1,101 @@
+package eu.ha3.presencefootsteps.sound.acoustics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import eu.ha3.presencefootsteps.sound.Options;
+import eu.ha3.presencefootsteps.world.SoundsKey;
+
+class DeferredAcousticLibraryTest {
+    private static final int ENTITIES = 100;
+    private static final int BATCH_SIZE = 8;
+    private static final long SEED = 4815162342L;
+
+    @Test
+    void replayingRecordedBatchesMatchesSerialGeneration() throws Exception {
+        List<String> serial = generateSerially();
+        List<String> parallel = generateInParallel();
+
+        assertEquals(ENTITIES * 2, serial.size());
+        assertEquals(serial, parallel);
+    }
+
+    @Test
+    void acousticsOutsideOfARecordingArePlayedImmediately() {
+        List<String> played = new ArrayList<>();
+        new DeferredAcousticLibrary(playingInto(played)).playAcoustic(null, SoundsKey.of("immediate"), null, Options.EMPTY);
+
+        assertEquals(1, played.size());
+    }
+
+    private static List<String> generateSerially() {
+        List<String> played = new ArrayList<>();
+        DeferredAcousticLibrary library = new DeferredAcousticLibrary(playingInto(played));
+        for (int entity = 0; entity < ENTITIES; entity++) {
+            step(library, entity);
+        }
+        return played;
+    }
+
+    private static List<String> generateInParallel() throws Exception {
+        List<String> played = new ArrayList<>();
+        DeferredAcousticLibrary library = new DeferredAcousticLibrary(playingInto(played));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DeferredAcousticLibrary.Recording>> batches = new ArrayList<>();
+            for (int start = 0; start < ENTITIES; start += BATCH_SIZE) {
+                final int first = start;
+                final int last = Math.min(ENTITIES, start + BATCH_SIZE);
+                batches.add(executor.submit(() -> DeferredAcousticLibrary.record(() -> {
+                    for (int entity = first; entity < last; entity++) {
+                        step(library, entity);
+                    }
+                })));
+            }
+            // nothing reaches the library until the recordings are played back on this thread
+            assertEquals(0, played.size());
+            for (var batch : batches) {
+                batch.get().play();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return played;
+    }
+
+    /**
+     * Stands in for a generator, producing two acoustics per entity that depend on nothing but the entity.
+     */
+    private static void step(AcousticLibrary library, int entity) {
+        library.playAcoustic(null, SoundsKey.of("step_" + entity), null, Options.EMPTY);
+        library.playAcoustic(null, SoundsKey.of("wet_" + entity), null, Options.EMPTY);
+    }
+
+    /**
+     * Creates a library that plays acoustics by drawing from a single random source, the way acoustics pick their sounds,
+     * and records what was played along with the draw so any change in order shows up as different draws.
+     */
+    private static AcousticLibrary playingInto(List<String> played) {
+        Thread owner = Thread.currentThread();
+        Random random = new Random(SEED);
+        AcousticLibrary library = mock(AcousticLibrary.class);
+        doAnswer(invocation -> {
+            assertSame(owner, Thread.currentThread(), "Acoustics must only be played on the thread that owns the library");
+            played.add(invocation.<SoundsKey>getArgument(1).raw() + "@" + random.nextInt(1000));
+            return null;
+        }).when(library).playAcoustic(any(), any(), any(), any());
+        return library;
+    }
+}
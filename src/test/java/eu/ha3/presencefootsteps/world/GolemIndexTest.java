@@ -0,0 +1,95 @@
+package eu.ha3.presencefootsteps.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
+
+/**
+ * Counts the entity queries made against the world when probing every block around the camera for golems,
+ * with the index and the way it was done before, with one query per probe.
+ */
+class GolemIndexTest {
+    private static final int REACH = 16;
+    private static final int PROBES = (REACH * 2 + 1) * (REACH * 2 + 1);
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void probingUsesOneQueryPerTick() {
+        World world = mock(World.class);
+        List<Entity> entities = List.of(
+                createEntity(world, EntityType.OAK_BOAT, new Box(3.2, 64, 3.2, 4.6, 64.5, 4.6)),
+                createEntity(world, EntityType.OAK_BOAT, new Box(-10.5, 63.8, 7.9, -9.1, 64.3, 9.3)),
+                createEntity(world, EntityType.PIG, new Box(0, 64, 0, 0.9, 64.9, 0.9))
+        );
+        when(world.getOtherEntities(any(), any(), any())).thenAnswer(invocation -> {
+            Entity except = invocation.getArgument(0);
+            Box box = invocation.getArgument(1);
+            Predicate<? super Entity> predicate = invocation.getArgument(2);
+            return entities.stream().filter(e -> e != except && e.getBoundingBox().intersects(box) && predicate.test(e)).toList();
+        });
+
+        @SuppressWarnings("unchecked")
+        Lookup<EntityType<?>> golems = mock(Lookup.class);
+        when(golems.getSubstrates()).thenReturn(Set.of(Substrates.DEFAULT));
+        when(golems.contains(any())).thenAnswer(invocation -> invocation.getArgument(0) == EntityType.OAK_BOAT);
+
+        Entity camera = createEntity(world, EntityType.PLAYER, new Box(0.2, 64, 0.2, 0.8, 65.8, 0.8));
+
+        GolemIndex index = new GolemIndex();
+        index.update(camera, golems);
+        int found = 0;
+        for (int x = -REACH; x <= REACH; x++) {
+            for (int z = -REACH; z <= REACH; z++) {
+                found += index.getCandidates(new BlockPos(x, 64, z)).size();
+            }
+        }
+        verify(world, times(1)).getOtherEntities(any(), any(), any());
+        assertTrue(found > 0, "Probing should have found the boats");
+
+        // the old way, with every probe asking the world
+        for (int x = -REACH; x <= REACH; x++) {
+            for (int z = -REACH; z <= REACH; z++) {
+                BlockPos pos = new BlockPos(x, 64, z);
+                Box probe = new Box(pos).expand(0.5, 0, 0.5);
+                assertTrue(index.matchesWorld(camera, pos, golems, golem -> golem.getBoundingBox().intersects(probe)),
+                        "Golems indexed at " + pos + " differ from those found in the world");
+            }
+        }
+        verify(world, times(1 + PROBES)).getOtherEntities(any(), any(), any());
+
+        index.update(camera, golems);
+        assertEquals(PROBES, index.getProbeCount());
+    }
+
+    private static Entity createEntity(World world, EntityType<?> type, Box box) {
+        Entity entity = mock(Entity.class);
+        when(entity.getType()).thenAnswer(invocation -> type);
+        when(entity.getBoundingBox()).thenReturn(box);
+        when(entity.getEntityWorld()).thenReturn(world);
+        return entity;
+    }
+}
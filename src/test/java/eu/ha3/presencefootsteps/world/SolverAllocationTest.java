@@ -0,0 +1,85 @@
+package eu.ha3.presencefootsteps.world;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import eu.ha3.presencefootsteps.PFConfig;
+import eu.ha3.presencefootsteps.sound.SoundEngine;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.decoration.ArmorStandEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Checks that solving a foot which lands on a remembered position hands back the remembered association
+ * without allocating anything along the way.
+ */
+class SolverAllocationTest {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    /**
+     * Smaller than any object, so even one allocation per solve shows up in the average.
+     */
+    private static final long MAX_BYTES_PER_SOLVE = 8;
+
+    private static final BlockPos FOOT = new BlockPos(0, 63, 0);
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void cacheHitsDoNotAllocate() throws ReflectiveOperationException {
+        World world = mock(World.class);
+        SoundEngine engine = new SoundEngine(mock(PFConfig.class));
+
+        // standing still in the middle of a block facing south, so both feet land on the same block
+        LivingEntity entity = new ArmorStandEntity(EntityType.ARMOR_STAND, world);
+        entity.setYaw(0);
+        entity.setPosition(0.5, 64, 0.5);
+        AssociationPool associations = new AssociationPool(entity, engine);
+
+        Association stone = Association.of(Blocks.STONE.getDefaultState(), FOOT, false, SoundsKey.of("stone"), SoundsKey.NON_EMITTER, SoundsKey.NON_EMITTER);
+        engine.getSolver().onTick(world);
+        getCache(engine.getSolver()).put(engine.getIsolator().blocks(entity.getType()), AssociationCache.VARIANT_BARE, FOOT.asLong(), stone);
+
+        for (int i = 0; i < WARMUP; i++) {
+            assertSame(stone, associations.findAssociation(0, i % 2 == 0), "Remembered associations should be handed back as they are");
+        }
+
+        long perSolve = measureAllocatedBytes(i -> associations.findAssociation(0, i % 2 == 0)) / ITERATIONS;
+
+        assertTrue(perSolve < MAX_BYTES_PER_SOLVE, "Solving a remembered foot allocated " + perSolve + " bytes per solve");
+    }
+
+    private static long measureAllocatedBytes(IntConsumer action) {
+        ThreadMXBean threads = (ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.accept(i);
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private static AssociationCache getCache(Solver solver) throws ReflectiveOperationException {
+        Field field = PFSolver.class.getDeclaredField("associationCache");
+        field.setAccessible(true);
+        return (AssociationCache)field.get(solver);
+    }
+}